@@ -0,0 +1,81 @@
+package org.example.reward.benchmark;
+
+import org.example.reward.dto.RewardRecord;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Входные данные бенчмарков: CSV файлы и записи заданного размера и вида содержимого.
+ */
+final class BenchmarkData {
+    
+    static final String HEADER = "employeeId,employeeFullName,rewardId,rewardName,receivedDate\n";
+    
+    /**
+     * Вид текстовых полей: латиница, кириллица (2 байта на символ в UTF-8)
+     * или поля в кавычках с запятыми и экранированными кавычками.
+     */
+    enum Content {
+        ASCII,
+        CYRILLIC,
+        QUOTED
+    }
+    
+    private static final String[] ASCII_NAMES = {
+        "Ivanov Ivan Ivanovich", "Petrov Petr Petrovich", "Sidorova Anna Sergeevna"
+    };
+    
+    private static final String[] CYRILLIC_NAMES = {
+        "Иванов Иван Иванович", "Петров Петр Петрович", "Сидорова Анна Сергеевна"
+    };
+    
+    private BenchmarkData() {
+    }
+    
+    /**
+     * Строка CSV (с переводом строки) для записи с номером i.
+     */
+    static String row(Content content, int i) {
+        long employeeId = i % 10_000 + 1;
+        long rewardId = 100 + i % 50;
+        String date = String.format("2024-%02d-%02dT%02d:%02d:00", i % 12 + 1, i % 28 + 1, i % 24, i % 60);
+        
+        return switch (content) {
+            case ASCII -> employeeId + "," + ASCII_NAMES[i % ASCII_NAMES.length] + "," + rewardId
+                + ",Best employee of the month," + date + "\n";
+            case CYRILLIC -> employeeId + "," + CYRILLIC_NAMES[i % CYRILLIC_NAMES.length] + "," + rewardId
+                + ",Лучший сотрудник месяца," + date + "\n";
+            case QUOTED -> employeeId + ",\"" + CYRILLIC_NAMES[i % CYRILLIC_NAMES.length].replace(' ', ',') + "\","
+                + rewardId + ",\"Награда \"\"Лучший сотрудник\"\", 1 место\"," + date + "\r\n";
+        };
+    }
+    
+    /**
+     * CSV файл с заголовком и заданным количеством строк.
+     */
+    static byte[] csv(Content content, int rows) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(rows * 96);
+        out.writeBytes(HEADER.getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < rows; i++) {
+            out.writeBytes(row(content, i).getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+    
+    /**
+     * Записи для обработки сервисом; ID сотрудников от 1 до employees.
+     */
+    static List<RewardRecord> records(int rows, int employees) {
+        List<RewardRecord> records = new ArrayList<>(rows);
+        LocalDateTime date = LocalDateTime.parse("2024-01-15T10:30:00");
+        for (int i = 0; i < rows; i++) {
+            records.add(new RewardRecord((long) (i % employees + 1), CYRILLIC_NAMES[i % CYRILLIC_NAMES.length],
+                100L + i % 50, "Лучший сотрудник месяца", date.plusMinutes(i)));
+        }
+        return records;
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.reward.benchmark;
+
+import org.example.reward.binary.CsvToBinaryConverter;
+import org.example.reward.config.RewardProperties;
+import org.example.reward.metrics.RewardMetrics;
+import org.example.reward.service.CsvParserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность разбора файла в двоичном формате ({@link CsvParserService#parseBinary})
+ * для сравнения с {@link CsvParserBenchmark}: те же данные, преобразованные из CSV, подаются
+ * порциями по 64 КБ.
+ *
+ * Результат в ops/s — разобранных файлов в секунду; строк в секунду = ops/s × rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BinaryParserBenchmark {
+    
+    private static final int CHUNK_SIZE = 64 * 1024;
+    
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+    
+    @Param({"ASCII", "CYRILLIC", "QUOTED"})
+    private BenchmarkData.Content content;
+    
+    private CsvParserService csvParserService;
+    
+    private byte[] binary;
+    
+    @Setup
+    public void setUp() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvToBinaryConverter.convert(new ByteArrayInputStream(BenchmarkData.csv(content, rows)), out);
+        binary = out.toByteArray();
+        
+        csvParserService = new CsvParserService(RewardMetrics.noop(), new RewardProperties());
+    }
+    
+    @Benchmark
+    public long parseBinary() {
+        return csvParserService.parseBinary(chunks(), null).count().block();
+    }
+    
+    private Flux<DataBuffer> chunks() {
+        return Flux.range(0, (binary.length + CHUNK_SIZE - 1) / CHUNK_SIZE)
+            .map(chunk -> {
+                int offset = chunk * CHUNK_SIZE;
+                int length = Math.min(CHUNK_SIZE, binary.length - offset);
+                return DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(binary, offset, length));
+            });
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.reward.benchmark;
+
+import org.example.reward.config.RewardProperties;
+import org.example.reward.metrics.RewardMetrics;
+import org.example.reward.service.CsvParserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность потокового разбора CSV файла целиком ({@link CsvParserService#parseCsv(Flux)}).
+ * Файл подается порциями по 64 КБ, как при чтении с диска в асинхронных заданиях.
+ *
+ * Результат в ops/s — разобранных файлов в секунду; строк в секунду = ops/s × rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CsvParserBenchmark {
+    
+    private static final int CHUNK_SIZE = 64 * 1024;
+    
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+    
+    @Param({"ASCII", "CYRILLIC", "QUOTED"})
+    private BenchmarkData.Content content;
+    
+    /**
+     * Количество порций файла, разбираемых одновременно (1 — последовательный разбор).
+     */
+    @Param({"1", "4"})
+    private int parallelism;
+    
+    private CsvParserService csvParserService;
+    
+    private byte[] csv;
+    
+    @Setup
+    public void setUp() {
+        csv = BenchmarkData.csv(content, rows);
+        
+        RewardProperties properties = new RewardProperties();
+        properties.getParser().setParallelism(parallelism);
+        csvParserService = new CsvParserService(RewardMetrics.noop(), properties);
+    }
+    
+    @Benchmark
+    public long parseCsv() {
+        return csvParserService.parseCsv(chunks()).count().block();
+    }
+    
+    private Flux<DataBuffer> chunks() {
+        return Flux.range(0, (csv.length + CHUNK_SIZE - 1) / CHUNK_SIZE)
+            .map(chunk -> {
+                int offset = chunk * CHUNK_SIZE;
+                int length = Math.min(CHUNK_SIZE, csv.length - offset);
+                return DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(csv, offset, length));
+            });
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.reward.benchmark;
+
+import org.example.reward.parser.IsoDateTimeParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор receivedDate: {@link IsoDateTimeParser} в сравнении с
+ * {@code LocalDateTime.parse(value, ISO_DATE_TIME)} на наборе из {@link #VALUES} дат.
+ * distinct — количество разных дат в наборе: 16 — повторяющиеся даты (попадания в кэш),
+ * 1024 — почти все даты разные.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DateTimeParserBenchmark {
+    
+    private static final int VALUES = 1024;
+    
+    @Param({"16", "1024"})
+    private int distinct;
+    
+    private byte[][] values;
+    
+    private IsoDateTimeParser parser;
+    
+    @Setup
+    public void setUp() {
+        values = new byte[VALUES][];
+        LocalDateTime start = LocalDateTime.parse("2024-01-15T10:30:00");
+        for (int i = 0; i < VALUES; i++) {
+            values[i] = start.plusMinutes(37L * (i % distinct)).toString().getBytes(StandardCharsets.UTF_8);
+        }
+        parser = new IsoDateTimeParser();
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void isoDateTimeParser(Blackhole blackhole) {
+        for (byte[] value : values) {
+            blackhole.consume(parser.parse(value, 0, value.length));
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void dateTimeFormatter(Blackhole blackhole) {
+        for (byte[] value : values) {
+            blackhole.consume(LocalDateTime.parse(new String(value, StandardCharsets.UTF_8), DateTimeFormatter.ISO_DATE_TIME));
+        }
+    }
+}
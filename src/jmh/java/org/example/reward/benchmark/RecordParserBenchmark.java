@@ -0,0 +1,51 @@
+package org.example.reward.benchmark;
+
+import org.example.reward.dto.RewardRecord;
+import org.example.reward.parser.RewardCsvParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор одной строки CSV в {@link RewardRecord} без реактивной обвязки:
+ * числа, строки и дата одной записи. Парсер переиспользуется, как при разборе файла.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RecordParserBenchmark {
+    
+    @Param({"ASCII", "CYRILLIC", "QUOTED"})
+    private BenchmarkData.Content content;
+    
+    private ByteBuffer row;
+    
+    private RewardCsvParser parser;
+    
+    private final List<RewardRecord> records = new ArrayList<>(1);
+    
+    @Setup
+    public void setUp() {
+        row = ByteBuffer.wrap(BenchmarkData.row(content, 42).getBytes(StandardCharsets.UTF_8));
+        parser = new RewardCsvParser(false, 1);
+    }
+    
+    @Benchmark
+    public void parseRecord(Blackhole blackhole) {
+        parser.feed(row.duplicate(), records);
+        blackhole.consume(records.get(0));
+        records.clear();
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.reward.benchmark;
+
+import org.example.reward.cache.EmployeeIdCache;
+import org.example.reward.cache.RewardTypeCatalog;
+import org.example.reward.config.RewardProperties;
+import org.example.reward.dto.RewardRecord;
+import org.example.reward.dto.RewardUploadResponse;
+import org.example.reward.metrics.RewardMetrics;
+import org.example.reward.repository.RewardBatchRepository;
+import org.example.reward.service.RewardService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накладные расходы {@link RewardService#processRewards(Flux)} без БД: разбиение на пачки,
+ * фильтрация по существующим сотрудникам и учет счетчиков. Проверка сотрудников, справочник
+ * типов наград и вставка заменены заглушками, которые отвечают сразу; каждый десятый сотрудник считается несуществующим.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RewardServiceBenchmark {
+    
+    private static final int EMPLOYEES = 10_000;
+    
+    @Param({"1000", "100000"})
+    private int rows;
+    
+    @Param({"1000"})
+    private int batchSize;
+    
+    private RewardService rewardService;
+    
+    private List<RewardRecord> records;
+    
+    @Setup
+    public void setUp() {
+        RewardProperties properties = new RewardProperties();
+        properties.getBatch().setSize(batchSize);
+        
+        rewardService = new RewardService(new StubEmployeeIdCache(properties), new StubRewardTypeCatalog(),
+            new StubRewardBatchRepository(), properties, RewardMetrics.noop(), event -> { }, null, null);
+        records = BenchmarkData.records(rows, EMPLOYEES);
+    }
+    
+    @Benchmark
+    public RewardUploadResponse processRewards() {
+        return rewardService.processRewards(Flux.fromIterable(records)).block();
+    }
+    
+    private static final class StubEmployeeIdCache extends EmployeeIdCache {
+        
+        StubEmployeeIdCache(RewardProperties properties) {
+            super(null, properties);
+        }
+        
+        @Override
+        public Mono<Set<Long>> findExistingIds(Long[] employeeIds) {
+            Set<Long> existing = new HashSet<>(employeeIds.length * 2);
+            for (Long employeeId : employeeIds) {
+                if (employeeId % 10 != 0) {
+                    existing.add(employeeId);
+                }
+            }
+            return Mono.just(existing);
+        }
+    }
+    
+    private static final class StubRewardTypeCatalog extends RewardTypeCatalog {
+        
+        StubRewardTypeCatalog() {
+            super(null);
+        }
+        
+        @Override
+        public Mono<Void> registerTypes(List<RewardRecord> records) {
+            return Mono.empty();
+        }
+    }
+    
+    private static final class StubRewardBatchRepository extends RewardBatchRepository {
+        
+        StubRewardBatchRepository() {
+            super(null);
+        }
+        
+        @Override
+        public Mono<Long> insertAll(List<RewardRecord> records, boolean skipDuplicates) {
+            return Mono.just((long) records.size());
+        }
+    }
+}
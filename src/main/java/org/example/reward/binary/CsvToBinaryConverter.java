@@ -0,0 +1,75 @@
+package org.example.reward.binary;
+
+import org.example.reward.dto.RewardRecord;
+import org.example.reward.parser.RewardCsvParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Преобразование CSV файла наград в двоичный формат {@link RewardBinaryFormat}.
+ * CSV читается потоково и проверяется тем же парсером, что и при загрузке; первая неверная
+ * строка прерывает преобразование.
+ *
+ * Запуск: ./gradlew convertRewardsCsv -Pfile=rewards.csv -Pout=rewards.rwb
+ */
+public final class CsvToBinaryConverter {
+    
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    
+    private CsvToBinaryConverter() {
+    }
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Использование: CsvToBinaryConverter <файл.csv> <файл" + RewardBinaryFormat.EXTENSION + ">");
+            System.exit(1);
+        }
+        Path source = Path.of(args[0]);
+        Path target = Path.of(args[1]);
+        
+        long started = System.nanoTime();
+        long records;
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = Files.newOutputStream(target)) {
+            records = convert(in, out);
+        }
+        System.out.printf("Записей: %d, %s: %d байт -> %s: %d байт, %d мс%n", records,
+            source, Files.size(source), target, Files.size(target), (System.nanoTime() - started) / 1_000_000);
+    }
+    
+    /**
+     * Преобразует CSV в двоичный формат. Потоки не закрываются.
+     *
+     * @return количество записей
+     */
+    public static long convert(InputStream csv, OutputStream binary) throws IOException {
+        RewardCsvParser parser = new RewardCsvParser();
+        List<RewardRecord> records = new ArrayList<>();
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        
+        RewardBinaryWriter writer = new RewardBinaryWriter(binary);
+        int read;
+        while ((read = csv.read(buffer)) != -1) {
+            parser.feed(ByteBuffer.wrap(buffer, 0, read), records);
+            write(writer, records);
+        }
+        parser.finish(records);
+        write(writer, records);
+        writer.flush();
+        return writer.written();
+    }
+    
+    private static void write(RewardBinaryWriter writer, List<RewardRecord> records) throws IOException {
+        for (RewardRecord record : records) {
+            writer.write(record);
+        }
+        records.clear();
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.reward.binary;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Locale;
+
+/**
+ * Двоичный формат файла наград (.rwb) для обмена между системами, альтернатива CSV без
+ * разбора текста и дат.
+ *
+ * Файл начинается с сигнатуры {@code RWB} и байта версии, далее следуют блоки. Блок состоит
+ * из байта типа, длины содержимого (int32) и содержимого. Все числа записываются в порядке
+ * big-endian.
+ * <ul>
+ *   <li>{@code S} — строки словаря: количество строк (int32), затем для каждой строки длина
+ *   в байтах (int32) и байты UTF-8. Строки получают следующие по порядку индексы словаря,
+ *   начиная с 0 для первой строки файла.</li>
+ *   <li>{@code R} — записи: количество записей n (int32), затем колонки по n значений:
+ *   employeeId (int64), индекс employeeFullName в словаре (int32), rewardId (int64),
+ *   индекс rewardName в словаре (int32), receivedDate (int64, миллисекунды от 1970-01-01T00:00,
+ *   дата без часового пояса).</li>
+ * </ul>
+ * Строка словаря должна быть записана до блока записей, который на нее ссылается.
+ * Размер блока ограничен {@link #MAX_BLOCK_BYTES}, поэтому при чтении в памяти находится
+ * не больше одного блока.
+ */
+public final class RewardBinaryFormat {
+    
+    public static final String EXTENSION = ".rwb";
+    
+    static final byte[] MAGIC = {'R', 'W', 'B'};
+    static final byte VERSION = 1;
+    static final int FILE_HEADER_BYTES = MAGIC.length + 1;
+    
+    static final byte STRINGS_BLOCK = 'S';
+    static final byte RECORDS_BLOCK = 'R';
+    
+    /**
+     * Тип блока (1 байт) и длина содержимого (4 байта).
+     */
+    static final int BLOCK_HEADER_BYTES = 5;
+    
+    /**
+     * Размер записи в блоке записей: два int64 идентификатора, два int32 индекса и int64 дата.
+     */
+    static final int RECORD_BYTES = 8 + 4 + 8 + 4 + 8;
+    
+    /**
+     * Ограничение размера содержимого блока: защищает от чтения в память произвольно
+     * большого блока из поврежденного файла.
+     */
+    static final int MAX_BLOCK_BYTES = 4 * 1024 * 1024;
+    
+    /**
+     * Ограничение количества строк словаря.
+     */
+    static final int MAX_DICTIONARY_SIZE = 1 << 20;
+    
+    private RewardBinaryFormat() {
+    }
+    
+    public static boolean isBinaryFile(String filename) {
+        return filename != null && filename.toLowerCase(Locale.ROOT).endsWith(EXTENSION);
+    }
+    
+    static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+    
+    static LocalDateTime fromEpochMillis(long epochMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000),
+            (int) Math.floorMod(epochMillis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,285 @@
+package org.example.reward.binary;
+
+import org.example.reward.dto.RejectedRecord;
+import org.example.reward.dto.RewardRecord;
+import org.example.reward.exception.InvalidFileFormatException;
+import org.example.reward.exception.InvalidRecordException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Потоковый (push) парсер файла наград в формате {@link RewardBinaryFormat}.
+ *
+ * Принимает байты файла произвольными порциями. Блок, целиком находящийся во входной порции,
+ * разбирается прямо из нее; начало блока, разорванного между порциями, копируется во
+ * внутренний буфер до получения остальных байтов. Строки словаря создаются один раз при
+ * чтении блока строк, поэтому записи с одинаковыми именами ссылаются на один экземпляр строки.
+ * Экземпляр хранит состояние и не потокобезопасен: на каждый файл создается новый парсер.
+ *
+ * Записи проверяются по тем же правилам, что и записи CSV. В сообщениях об ошибках и
+ * в отклоненных записях вместо номера строки указывается номер записи в файле (с 1).
+ * Ошибки структуры файла (сигнатура, неизвестный блок, неверная длина, обрезанный файл)
+ * прерывают разбор в любом режиме.
+ */
+public final class RewardBinaryParser {
+    
+    private static final int INITIAL_BUFFER_CAPACITY = 64 * 1024;
+    
+    private final Consumer<RejectedRecord> rejectedRecords;
+    private final List<String> dictionary = new ArrayList<>();
+    
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_CAPACITY);
+    private boolean headerPending = true;
+    private long recordNumber;
+    
+    public RewardBinaryParser() {
+        this(null);
+    }
+    
+    /**
+     * @param rejectedRecords обработчик неверных записей (нестрогий режим) или null (строгий режим)
+     */
+    public RewardBinaryParser(Consumer<RejectedRecord> rejectedRecords) {
+        this.rejectedRecords = rejectedRecords;
+    }
+    
+    /**
+     * Разбирает очередную порцию байтов и добавляет записи полностью прочитанных блоков в out.
+     */
+    public void feed(ByteBuffer chunk, List<RewardRecord> out) {
+        ByteBuffer input = chunk.duplicate();
+        while (input.hasRemaining()) {
+            if (pending.position() == 0 && !headerPending && isCompleteBlock(input)) {
+                readBlock(input, out);
+                continue;
+            }
+            
+            int required = required();
+            if (pending.position() < required) {
+                int count = Math.min(required - pending.position(), input.remaining());
+                pending.put(pending.position(), input, input.position(), count);
+                pending.position(pending.position() + count);
+                input.position(input.position() + count);
+            }
+            // После заголовка блока известна его полная длина
+            if (pending.position() == required && required() == required) {
+                pending.flip();
+                if (headerPending) {
+                    readFileHeader(pending);
+                } else {
+                    readBlock(pending, out);
+                }
+                pending.clear();
+            }
+        }
+    }
+    
+    /**
+     * Завершает разбор: проверяет, что файл не обрезан.
+     */
+    public void finish() {
+        if (headerPending) {
+            throw new InvalidFileFormatException("Файл пуст или не является файлом наград в двоичном формате");
+        }
+        if (pending.position() > 0) {
+            throw new InvalidFileFormatException("Файл обрезан: последний блок не завершен");
+        }
+    }
+    
+    /**
+     * Количество байтов, которое нужно накопить во внутреннем буфере для разбора.
+     */
+    private int required() {
+        if (headerPending) {
+            return RewardBinaryFormat.FILE_HEADER_BYTES;
+        }
+        if (pending.position() < RewardBinaryFormat.BLOCK_HEADER_BYTES) {
+            return RewardBinaryFormat.BLOCK_HEADER_BYTES;
+        }
+        int required = RewardBinaryFormat.BLOCK_HEADER_BYTES + blockLength(pending, 0);
+        if (pending.capacity() < required) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(required, pending.capacity() * 2));
+            pending.flip();
+            grown.put(pending);
+            pending = grown;
+        }
+        return required;
+    }
+    
+    private static boolean isCompleteBlock(ByteBuffer input) {
+        return input.remaining() >= RewardBinaryFormat.BLOCK_HEADER_BYTES &&
+            input.remaining() - RewardBinaryFormat.BLOCK_HEADER_BYTES >= blockLength(input, input.position());
+    }
+    
+    private static int blockLength(ByteBuffer buffer, int blockStart) {
+        int length = buffer.getInt(blockStart + 1);
+        if (length < 0 || length > RewardBinaryFormat.MAX_BLOCK_BYTES) {
+            throw new InvalidFileFormatException(String.format(
+                "Неверная длина блока: %d байт (допустимо не больше %d)", length, RewardBinaryFormat.MAX_BLOCK_BYTES));
+        }
+        return length;
+    }
+    
+    private void readFileHeader(ByteBuffer buffer) {
+        for (byte expected : RewardBinaryFormat.MAGIC) {
+            if (buffer.get() != expected) {
+                throw new InvalidFileFormatException("Файл не является файлом наград в двоичном формате");
+            }
+        }
+        byte version = buffer.get();
+        if (version != RewardBinaryFormat.VERSION) {
+            throw new InvalidFileFormatException("Неподдерживаемая версия двоичного формата: " + version);
+        }
+        headerPending = false;
+    }
+    
+    private void readBlock(ByteBuffer buffer, List<RewardRecord> out) {
+        byte type = buffer.get();
+        int length = buffer.getInt();
+        int end = buffer.position() + length;
+        
+        switch (type) {
+            case RewardBinaryFormat.STRINGS_BLOCK -> readStrings(buffer, end);
+            case RewardBinaryFormat.RECORDS_BLOCK -> readRecords(buffer, length, out);
+            default -> throw new InvalidFileFormatException(String.format("Неизвестный тип блока: 0x%02x", type));
+        }
+        if (buffer.position() != end) {
+            throw new InvalidFileFormatException("Длина блока не соответствует содержимому");
+        }
+    }
+    
+    private void readStrings(ByteBuffer buffer, int end) {
+        int count = readCount(buffer, end);
+        if (count > RewardBinaryFormat.MAX_DICTIONARY_SIZE - dictionary.size()) {
+            throw new InvalidFileFormatException(String.format(
+                "Превышен размер словаря (%d строк)", RewardBinaryFormat.MAX_DICTIONARY_SIZE));
+        }
+        for (int i = 0; i < count; i++) {
+            int length = readCount(buffer, end);
+            if (length > end - buffer.position()) {
+                throw new InvalidFileFormatException("Длина блока не соответствует содержимому");
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            dictionary.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+    
+    /**
+     * Читает блок записей. Колонки читаются по абсолютным позициям, без копирования.
+     */
+    private void readRecords(ByteBuffer buffer, int length, List<RewardRecord> out) {
+        int count = readCount(buffer, buffer.position() + length);
+        if ((long) count * RewardBinaryFormat.RECORD_BYTES != length - 4) {
+            throw new InvalidFileFormatException("Длина блока не соответствует содержимому");
+        }
+        
+        int employeeIds = buffer.position();
+        int employeeNames = employeeIds + 8 * count;
+        int rewardIds = employeeNames + 4 * count;
+        int rewardNames = rewardIds + 8 * count;
+        int receivedDates = rewardNames + 4 * count;
+        
+        for (int i = 0; i < count; i++) {
+            recordNumber++;
+            long employeeId = buffer.getLong(employeeIds + 8 * i);
+            int employeeName = buffer.getInt(employeeNames + 4 * i);
+            long rewardId = buffer.getLong(rewardIds + 8 * i);
+            int rewardName = buffer.getInt(rewardNames + 4 * i);
+            long receivedDate = buffer.getLong(receivedDates + 8 * i);
+            
+            if (rejectedRecords == null) {
+                out.add(toRecord(employeeId, employeeName, rewardId, rewardName, receivedDate));
+                continue;
+            }
+            try {
+                out.add(toRecord(employeeId, employeeName, rewardId, rewardName, receivedDate));
+            } catch (InvalidRecordException e) {
+                rejectedRecords.accept(new RejectedRecord(recordNumber, reason(e),
+                    content(employeeId, employeeName, rewardId, rewardName, receivedDate)));
+            }
+        }
+        buffer.position(receivedDates + 8 * count);
+    }
+    
+    private RewardRecord toRecord(long employeeId, int employeeName, long rewardId, int rewardName,
+                                  long receivedDate) {
+        if (employeeId <= 0) {
+            throw invalid("employeeId должен быть положительным числом");
+        }
+        String employeeFullName = string(employeeName, "employeeFullName");
+        if (rewardId <= 0) {
+            throw invalid("rewardId должен быть положительным числом");
+        }
+        String name = string(rewardName, "rewardName");
+        
+        LocalDateTime date;
+        try {
+            date = RewardBinaryFormat.fromEpochMillis(receivedDate);
+        } catch (DateTimeException e) {
+            throw invalid("Неверное значение receivedDate: " + receivedDate);
+        }
+        return new RewardRecord(employeeId, employeeFullName, rewardId, name, date);
+    }
+    
+    private String string(int index, String fieldName) {
+        if (index < 0 || index >= dictionary.size()) {
+            throw invalid(String.format("Поле %s ссылается на отсутствующую строку словаря %d", fieldName, index));
+        }
+        String value = dictionary.get(index);
+        if (value.isBlank()) {
+            throw invalid(fieldName + " не может быть пустым");
+        }
+        return value;
+    }
+    
+    private static int readCount(ByteBuffer buffer, int end) {
+        if (end - buffer.position() < 4) {
+            throw new InvalidFileFormatException("Длина блока не соответствует содержимому");
+        }
+        int count = buffer.getInt();
+        if (count < 0) {
+            throw new InvalidFileFormatException("Длина блока не соответствует содержимому");
+        }
+        return count;
+    }
+    
+    /**
+     * Содержимое отклоненной записи в формате CSV; отсутствующие строки словаря указываются индексом.
+     */
+    private String content(long employeeId, int employeeName, long rewardId, int rewardName, long receivedDate) {
+        return String.join(",",
+            Long.toString(employeeId),
+            csvValue(employeeName),
+            Long.toString(rewardId),
+            csvValue(rewardName),
+            Long.toString(receivedDate));
+    }
+    
+    private String csvValue(int index) {
+        if (index < 0 || index >= dictionary.size()) {
+            return "#" + index;
+        }
+        String value = dictionary.get(index);
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+    
+    private String reason(InvalidRecordException e) {
+        String prefix = "Запись " + recordNumber + ": ";
+        String message = e.getMessage();
+        return message.startsWith(prefix) ? message.substring(prefix.length()) : message;
+    }
+    
+    private InvalidRecordException invalid(String message) {
+        return new InvalidRecordException(String.format("Запись %d: %s", recordNumber, message));
+    }
+}
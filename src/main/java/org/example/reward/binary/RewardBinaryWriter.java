@@ -0,0 +1,159 @@
+package org.example.reward.binary;
+
+import org.example.reward.dto.RewardRecord;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Запись наград в формате {@link RewardBinaryFormat}. Записи накапливаются в колонках
+ * и записываются блоками по {@link #BLOCK_RECORDS}; перед блоком записей записывается блок
+ * с новыми строками словаря, на которые ссылаются его записи. Экземпляр не потокобезопасен.
+ */
+public final class RewardBinaryWriter implements Closeable {
+    
+    /**
+     * Количество записей в блоке: блок занимает около 128 КБ, что намного меньше
+     * {@link RewardBinaryFormat#MAX_BLOCK_BYTES}.
+     */
+    static final int BLOCK_RECORDS = 4096;
+    
+    private final DataOutputStream out;
+    
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final List<byte[]> newStrings = new ArrayList<>();
+    private int newStringsBytes;
+    
+    private final long[] employeeIds = new long[BLOCK_RECORDS];
+    private final int[] employeeNames = new int[BLOCK_RECORDS];
+    private final long[] rewardIds = new long[BLOCK_RECORDS];
+    private final int[] rewardNames = new int[BLOCK_RECORDS];
+    private final long[] receivedDates = new long[BLOCK_RECORDS];
+    private int count;
+    
+    private long written;
+    
+    public RewardBinaryWriter(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        this.out.write(RewardBinaryFormat.MAGIC);
+        this.out.writeByte(RewardBinaryFormat.VERSION);
+    }
+    
+    /**
+     * Добавляет запись. Дата хранится с точностью до миллисекунд.
+     *
+     * @throws IllegalArgumentException если дата содержит доли миллисекунды
+     */
+    public void write(RewardRecord record) throws IOException {
+        if (record.receivedDate().getNano() % 1_000_000 != 0) {
+            throw new IllegalArgumentException(
+                "Дата " + record.receivedDate() + " не может быть записана: точность формата — миллисекунды");
+        }
+        
+        employeeIds[count] = record.employeeId();
+        employeeNames[count] = intern(record.employeeFullName());
+        rewardIds[count] = record.rewardId();
+        rewardNames[count] = intern(record.rewardName());
+        receivedDates[count] = RewardBinaryFormat.toEpochMillis(record.receivedDate());
+        count++;
+        written++;
+        
+        if (count == BLOCK_RECORDS) {
+            flushBlock();
+        }
+    }
+    
+    /**
+     * Количество записанных записей.
+     */
+    public long written() {
+        return written;
+    }
+    
+    /**
+     * Записывает накопленные записи неполным блоком, не закрывая выходной поток.
+     */
+    public void flush() throws IOException {
+        flushBlock();
+        out.flush();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBlock();
+        } finally {
+            out.close();
+        }
+    }
+    
+    private int intern(String value) throws IOException {
+        Integer index = dictionary.get(value);
+        if (index != null) {
+            return index;
+        }
+        if (dictionary.size() == RewardBinaryFormat.MAX_DICTIONARY_SIZE) {
+            throw new IllegalStateException(String.format(
+                "Превышен размер словаря (%d строк)", RewardBinaryFormat.MAX_DICTIONARY_SIZE));
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        // Блок строк не должен превысить допустимый размер блока
+        if (newStringsBytes + 4 + bytes.length > RewardBinaryFormat.MAX_BLOCK_BYTES - 4) {
+            flushStrings();
+        }
+        index = dictionary.size();
+        dictionary.put(value, index);
+        newStrings.add(bytes);
+        newStringsBytes += 4 + bytes.length;
+        return index;
+    }
+    
+    private void flushBlock() throws IOException {
+        flushStrings();
+        if (count == 0) {
+            return;
+        }
+        out.writeByte(RewardBinaryFormat.RECORDS_BLOCK);
+        out.writeInt(4 + count * RewardBinaryFormat.RECORD_BYTES);
+        out.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            out.writeLong(employeeIds[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            out.writeInt(employeeNames[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            out.writeLong(rewardIds[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            out.writeInt(rewardNames[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            out.writeLong(receivedDates[i]);
+        }
+        count = 0;
+    }
+    
+    private void flushStrings() throws IOException {
+        if (newStrings.isEmpty()) {
+            return;
+        }
+        out.writeByte(RewardBinaryFormat.STRINGS_BLOCK);
+        out.writeInt(4 + newStringsBytes);
+        out.writeInt(newStrings.size());
+        for (byte[] bytes : newStrings) {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        newStrings.clear();
+        newStringsBytes = 0;
+    }
+}
@@ -0,0 +1,224 @@
+package org.example.reward.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.reward.config.RewardProperties;
+import org.example.reward.repository.EmployeeRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Кэш идентификаторов существующих сотрудников перед {@link EmployeeRepository}.
+ *
+ * Снимок всех ID загружается при старте приложения и хранится в {@link LongHashSet}.
+ * Снимок устаревает по истечении TTL (после чего перезагружается в фоне, а до перезагрузки
+ * все проверки идут в БД) и не загружается вовсе, если сотрудников больше допустимого размера.
+ * Сотрудники, сохраненные после загрузки снимка, добавляются в кэш явно через {@link #add(Long)}.
+ * ID, которых нет в кэше, всегда проверяются в БД, поэтому кэш не дает ложных пропусков.
+ * Удаленный сотрудник может оставаться в кэше; вставка его наград нарушает внешний ключ,
+ * после чего пачка перепроверяется через {@link #recheckExistingIds(Long[])}.
+ */
+@Slf4j
+@Component
+public class EmployeeIdCache {
+    
+    private final EmployeeRepository employeeRepository;
+    private final RewardProperties.EmployeeCache properties;
+    
+    private volatile Snapshot snapshot;
+    
+    /**
+     * ID, сохраненные после загрузки снимка. Их немного, поэтому используется обычное множество.
+     */
+    private final Set<Long> addedIds = ConcurrentHashMap.newKeySet();
+    
+    /**
+     * Номер сброса кэша. Загрузка, во время которой кэш был сброшен, не публикует свой снимок,
+     * а загружает его заново.
+     */
+    private long generation;
+    
+    /**
+     * Выполняемая загрузка снимка; null, если загрузка не выполняется. Изменяется под блокировкой this.
+     */
+    private volatile Mono<Void> loading;
+    
+    public EmployeeIdCache(EmployeeRepository employeeRepository, RewardProperties rewardProperties) {
+        this.employeeRepository = employeeRepository;
+        this.properties = rewardProperties.getEmployeeCache();
+    }
+    
+    /**
+     * Прогревает кэш после старта приложения (после начального наполнения данных).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (properties.isEnabled()) {
+            reload()
+                .onErrorResume(e -> {
+                    log.warn("Не удалось загрузить кэш сотрудников, проверки будут выполняться в БД: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .block();
+        }
+    }
+    
+    /**
+     * Возвращает те идентификаторы из переданных, для которых существует сотрудник.
+     * Найденные в кэше ID не проверяются в БД, остальные проверяются одним запросом.
+     */
+    public Mono<Set<Long>> findExistingIds(Long[] employeeIds) {
+        Snapshot current = currentSnapshot();
+        if (current == null) {
+            return employeeRepository.findExistingIds(employeeIds).collect(Collectors.toSet());
+        }
+        
+        Set<Long> existing = new HashSet<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long employeeId : employeeIds) {
+            if (current.ids().contains(employeeId) || addedIds.contains(employeeId)) {
+                existing.add(employeeId);
+            } else {
+                misses.add(employeeId);
+            }
+        }
+        if (misses.isEmpty()) {
+            return Mono.just(existing);
+        }
+        
+        return employeeRepository.findExistingIds(misses.toArray(Long[]::new))
+            .doOnNext(addedIds::add)
+            .collect(() -> existing, Set::add);
+    }
+    
+    /**
+     * Проверяет идентификаторы в БД в обход кэша. Используется, когда вставка наград нарушила
+     * внешний ключ на employees: если часть ID, считавшихся существующими, в БД не найдена
+     * (сотрудник удален после загрузки снимка), кэш сбрасывается и загружается заново в фоне.
+     */
+    public Mono<Set<Long>> recheckExistingIds(Long[] employeeIds) {
+        return employeeRepository.findExistingIds(employeeIds)
+            .collect(Collectors.toSet())
+            .doOnNext(existing -> {
+                if (existing.size() < employeeIds.length) {
+                    log.info("Не найдено в БД сотрудников из кэша: {}, кэш сотрудников загружается заново",
+                        employeeIds.length - existing.size());
+                    invalidate().subscribe(null, e -> log.error("Не удалось перезагрузить кэш сотрудников", e));
+                }
+            });
+    }
+    
+    /**
+     * Регистрирует нового сотрудника в кэше.
+     */
+    public void add(Long employeeId) {
+        if (employeeId != null && (snapshot != null || loading != null)) {
+            addedIds.add(employeeId);
+        }
+    }
+    
+    /**
+     * Сбрасывает кэш и загружает снимок заново (например, после удаления сотрудников).
+     * Если загрузка уже выполняется, она повторяется после завершения, так как могла прочитать
+     * данные до сброса; возвращаемый Mono завершается после загрузки снимка, начатой после сброса.
+     */
+    public Mono<Void> invalidate() {
+        synchronized (this) {
+            generation++;
+            snapshot = null;
+            addedIds.clear();
+        }
+        return properties.isEnabled() ? reload() : Mono.empty();
+    }
+    
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null || !current.isExpired(properties.getTtl().toNanos())) {
+            return current;
+        }
+        snapshot = null;
+        reload().subscribe(null, e -> log.error("Не удалось перезагрузить кэш сотрудников", e));
+        return null;
+    }
+    
+    /**
+     * Возвращает выполняемую загрузку снимка или начинает новую.
+     */
+    private Mono<Void> reload() {
+        return Mono.defer(() -> {
+            synchronized (this) {
+                if (loading == null) {
+                    loading = load()
+                        .doOnError(e -> {
+                            synchronized (this) {
+                                loading = null;
+                            }
+                        })
+                        .cache();
+                }
+                return loading;
+            }
+        });
+    }
+    
+    /**
+     * Загружает снимок. Если кэш был сброшен во время загрузки, снимок не публикуется
+     * и загружается заново. Загрузка считается завершенной под той же блокировкой, под которой
+     * проверяется сброс, поэтому сброс после проверки начинает новую загрузку.
+     */
+    private Mono<Void> load() {
+        return Mono.defer(() -> {
+            long startedGeneration;
+            synchronized (this) {
+                startedGeneration = generation;
+            }
+            
+            int maxSize = properties.getMaxSize();
+            return employeeRepository.count()
+                .flatMap(count -> {
+                    if (count > maxSize) {
+                        log.warn("Сотрудников в БД ({}) больше размера кэша ({}), кэш отключен", count, maxSize);
+                        return Mono.<Snapshot>empty();
+                    }
+                    
+                    LongHashSet ids = new LongHashSet(count.intValue());
+                    addedIds.clear();
+                    return employeeRepository.findAllIds()
+                        .doOnNext(ids::add)
+                        .then(Mono.fromCallable(() -> new Snapshot(ids, System.nanoTime())));
+                })
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(loaded -> {
+                    synchronized (this) {
+                        if (generation != startedGeneration) {
+                            log.debug("Кэш сотрудников сброшен во время загрузки, снимок загружается заново");
+                            return load();
+                        }
+                        loaded.ifPresent(current -> {
+                            snapshot = current;
+                            log.info("Кэш сотрудников загружен: {} ID", current.ids().size());
+                        });
+                        loading = null;
+                    }
+                    return Mono.<Void>empty();
+                });
+        });
+    }
+    
+    private record Snapshot(LongHashSet ids, long loadedAtNanos) {
+        
+        boolean isExpired(long ttlNanos) {
+            return System.nanoTime() - loadedAtNanos > ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.reward.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.example.reward.entity.Employee;
+import org.reactivestreams.Publisher;
+import org.springframework.data.r2dbc.mapping.OutboundRow;
+import org.springframework.data.r2dbc.mapping.event.AfterSaveCallback;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Добавляет сохраненных через репозиторий сотрудников в {@link EmployeeIdCache}.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmployeeIdCacheCallback implements AfterSaveCallback<Employee> {
+    
+    private final EmployeeIdCache employeeIdCache;
+    
+    @Override
+    public Publisher<Employee> onAfterSave(Employee entity, OutboundRow outboundRow, SqlIdentifier table) {
+        employeeIdCache.add(entity.getId());
+        return Mono.just(entity);
+    }
+}
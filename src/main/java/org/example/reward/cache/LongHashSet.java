@@ -0,0 +1,104 @@
+package org.example.reward.cache;
+
+/**
+ * Компактное множество примитивных long на открытой адресации (линейное пробирование).
+ * Хранит значения в одном массиве без упаковки в Long, что дает ~16 байт на элемент
+ * при заполнении не более половины таблицы.
+ * 
+ * Не потокобезопасно: заполняется одним потоком, после публикации используется только для чтения.
+ */
+public final class LongHashSet {
+    
+    private static final long EMPTY = 0L;
+    
+    private static final int MIN_CAPACITY = 16;
+    
+    private long[] table;
+    private int mask;
+    private int size;
+    private boolean containsEmptyValue;
+    
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+    
+    /**
+     * @param expectedSize ожидаемое количество элементов
+     */
+    public LongHashSet(int expectedSize) {
+        int capacity = tableSizeFor(Math.max(MIN_CAPACITY, expectedSize * 2));
+        this.table = new long[capacity];
+        this.mask = capacity - 1;
+    }
+    
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsEmptyValue) {
+                return false;
+            }
+            containsEmptyValue = true;
+            size++;
+            return true;
+        }
+        
+        int index = indexFor(value);
+        while (table[index] != EMPTY) {
+            if (table[index] == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        table[index] = value;
+        size++;
+        
+        if (size * 2 > table.length) {
+            resize();
+        }
+        return true;
+    }
+    
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsEmptyValue;
+        }
+        
+        int index = indexFor(value);
+        long current;
+        while ((current = table[index]) != EMPTY) {
+            if (current == value) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    private void resize() {
+        long[] oldTable = table;
+        table = new long[oldTable.length * 2];
+        mask = table.length - 1;
+        for (long value : oldTable) {
+            if (value != EMPTY) {
+                int index = indexFor(value);
+                while (table[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                table[index] = value;
+            }
+        }
+    }
+    
+    private int indexFor(long value) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+    
+    private static int tableSizeFor(int capacity) {
+        int highestBit = Integer.highestOneBit(capacity - 1);
+        return highestBit >= (1 << 30) ? 1 << 30 : Math.max(MIN_CAPACITY, highestBit << 1);
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.reward.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import lombok.extern.slf4j.Slf4j;
+import org.example.reward.config.RewardProperties;
+import org.example.reward.dto.RewardView;
+import org.example.reward.metrics.RewardMetrics;
+import org.example.reward.repository.RewardRepository;
+import org.example.reward.service.RewardsSavedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш страниц наград сотрудника перед {@link RewardRepository#findEmployeePage}.
+ *
+ * Страницы хранятся в Caffeine {@link AsyncCache}: одновременные запросы одной страницы
+ * выполняют один запрос к БД. Размер кэша ограничен количеством страниц, страница устаревает
+ * по истечении TTL. После сохранения наград ({@link RewardsSavedEvent}) удаляются страницы
+ * только тех сотрудников, награды которых были сохранены; для этого ключи страниц
+ * индексируются по сотруднику. Попадания и промахи публикуются как метрики cache.gets
+ * (cache=rewards.query).
+ */
+@Slf4j
+@Component
+public class RewardQueryCache {
+    
+    static final String CACHE_NAME = "rewards.query";
+    
+    record PageKey(long employeeId, LocalDateTime afterDate, long afterId, LocalDateTime dateTo, int limit) {
+    }
+    
+    private final RewardRepository rewardRepository;
+    private final boolean enabled;
+    
+    private final AsyncCache<PageKey, List<RewardView>> pages;
+    
+    /**
+     * Ключи закэшированных страниц по сотруднику. Ключ удаляется при удалении страницы из кэша
+     * по любой причине (вытеснение, истечение TTL, ошибка загрузки), поэтому индекс не больше самого кэша.
+     */
+    private final Map<Long, Set<PageKey>> keysByEmployee = new ConcurrentHashMap<>();
+    
+    public RewardQueryCache(RewardRepository rewardRepository, RewardProperties rewardProperties,
+                            RewardMetrics rewardMetrics) {
+        RewardProperties.QueryCache properties = rewardProperties.getQueryCache();
+        this.rewardRepository = rewardRepository;
+        this.enabled = properties.isEnabled();
+        // removalListener вызывается асинхронно, в том числе после повторного добавления того же ключа,
+        // поэтому ключ удаляется из индекса, только если страницы с ним в кэше уже нет
+        this.pages = Caffeine.newBuilder()
+            .maximumSize(properties.getMaxSize())
+            .expireAfterWrite(properties.getTtl())
+            .removalListener((PageKey key, List<RewardView> page, RemovalCause cause) -> {
+                if (key != null) {
+                    unindexIfAbsent(key);
+                }
+            })
+            .recordStats()
+            .buildAsync();
+        rewardMetrics.monitorCache(pages.synchronous(), CACHE_NAME);
+    }
+    
+    /**
+     * Возвращает страницу наград сотрудника из кэша или из БД.
+     */
+    public Flux<RewardView> findEmployeePage(long employeeId, LocalDateTime afterDate, long afterId,
+                                             LocalDateTime dateTo, int limit) {
+        if (!enabled) {
+            return rewardRepository.findEmployeePage(employeeId, afterDate, afterId, dateTo, limit);
+        }
+        
+        PageKey key = new PageKey(employeeId, afterDate, afterId, dateTo, limit);
+        return Mono.fromFuture(() -> {
+                // Ключ индексируется до загрузки, чтобы удаление во время загрузки ее отменило,
+                // и после, так как get может вытеснить устаревшую страницу с тем же ключом
+                index(key);
+                CompletableFuture<List<RewardView>> page = pages.get(key, (pageKey, executor) -> rewardRepository
+                    .findEmployeePage(employeeId, afterDate, afterId, dateTo, limit)
+                    .collectList()
+                    .toFuture());
+                index(key);
+                // Уведомление об удалении неудачной загрузки могло прийти до повторного индексирования
+                return page.whenComplete((loaded, error) -> {
+                    if (error != null) {
+                        unindexIfAbsent(key);
+                    }
+                });
+            }, true) // отмена одного запроса не должна отменять загрузку, которую ждут другие
+            .flatMapIterable(page -> page);
+    }
+    
+    /**
+     * Удаляет страницы сотрудников, для которых сохранены новые награды.
+     */
+    @EventListener
+    public void onRewardsSaved(RewardsSavedEvent event) {
+        for (Long employeeId : event.employeeIds()) {
+            invalidate(employeeId);
+        }
+    }
+    
+    /**
+     * Удаляет страницы сотрудника, в том числе загружаемые в данный момент.
+     */
+    public void invalidate(long employeeId) {
+        Set<PageKey> keys = keysByEmployee.remove(employeeId);
+        if (keys != null) {
+            pages.synchronous().invalidateAll(keys);
+            log.debug("Удалены страницы наград сотрудника {} из кэша: {}", employeeId, keys.size());
+        }
+    }
+    
+    private void index(PageKey key) {
+        keysByEmployee.compute(key.employeeId(), (employeeId, keys) -> {
+            Set<PageKey> result = keys != null ? keys : ConcurrentHashMap.newKeySet();
+            result.add(key);
+            return result;
+        });
+    }
+    
+    /**
+     * Удаляет ключ из индекса, если страницы с ним нет в кэше. Проверка выполняется под блокировкой
+     * записи индекса сотрудника, поэтому не пересекается с индексированием того же ключа.
+     */
+    private void unindexIfAbsent(PageKey key) {
+        keysByEmployee.computeIfPresent(key.employeeId(), (employeeId, keys) -> {
+            if (!pages.asMap().containsKey(key)) {
+                keys.remove(key);
+            }
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+    
+    int indexedKeys() {
+        return keysByEmployee.values().stream().mapToInt(Set::size).sum();
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.reward.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.reward.dto.RewardRecord;
+import org.example.reward.repository.RewardTypeRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Справочник типов наград (reward_types): награды ссылаются на тип по rewardId, а название
+ * хранится один раз в справочнике, а не в каждой строке rewards.
+ *
+ * Перед сохранением пачки наград в справочник добавляются типы, которых в нем еще нет.
+ * ID известных типов хранятся в памяти, поэтому обращение к БД нужно только для пачек
+ * с новыми типами. Если тип уже есть в справочнике, его название не меняется: при
+ * расхождении названий в файлах остается первое сохраненное.
+ */
+@Slf4j
+@Component
+public class RewardTypeCatalog {
+    
+    /**
+     * Ограничение количества ID, хранимых в памяти. Типы сверх него проверяются в БД при каждой пачке.
+     */
+    static final int MAX_CACHED_TYPES = 100_000;
+    
+    private final RewardTypeRepository rewardTypeRepository;
+    
+    private final Set<Long> knownIds = ConcurrentHashMap.newKeySet();
+    
+    public RewardTypeCatalog(RewardTypeRepository rewardTypeRepository) {
+        this.rewardTypeRepository = rewardTypeRepository;
+    }
+    
+    /**
+     * Загружает ID существующих типов после старта приложения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rewardTypeRepository.findAll()
+            .take(MAX_CACHED_TYPES)
+            .doOnNext(type -> knownIds.add(type.getId()))
+            .then()
+            .doOnSuccess(ignored -> log.info("Справочник типов наград загружен: {} типов", knownIds.size()))
+            .onErrorResume(e -> {
+                log.warn("Не удалось загрузить справочник типов наград: {}", e.getMessage());
+                return Mono.empty();
+            })
+            .block();
+    }
+    
+    /**
+     * Добавляет в справочник типы наград из пачки, которых в нем еще нет.
+     *
+     * @param records пачка наград
+     * @return Mono<Void> завершается, когда все типы пачки есть в справочнике
+     */
+    public Mono<Void> registerTypes(List<RewardRecord> records) {
+        Map<Long, String> missing = null;
+        for (RewardRecord record : records) {
+            if (!knownIds.contains(record.rewardId())) {
+                if (missing == null) {
+                    missing = new LinkedHashMap<>();
+                }
+                missing.putIfAbsent(record.rewardId(), record.rewardName());
+            }
+        }
+        if (missing == null) {
+            return Mono.empty();
+        }
+        
+        Map<Long, String> types = missing;
+        return rewardTypeRepository.insertMissing(types.keySet().toArray(Long[]::new), types.values().toArray(String[]::new))
+            .doOnNext(inserted -> {
+                if (inserted > 0) {
+                    log.info("В справочник добавлено типов наград: {}", inserted);
+                }
+                if (knownIds.size() < MAX_CACHED_TYPES) {
+                    knownIds.addAll(types.keySet());
+                }
+            })
+            .then();
+    }
+    
+    /**
+     * Сбрасывает известные ID (например, после удаления типов из справочника).
+     */
+    public void invalidate() {
+        knownIds.clear();
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.reward.compression;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Сжатие загружаемого CSV файла, определяемое по расширению имени файла.
+ *
+ * Сжатое содержимое распаковывается потоково: каждый полученный буфер распаковывается сразу
+ * и освобождается, распакованные буферы создаются по запросу подписчика. Поэтому в памяти
+ * не находится ни весь сжатый, ни весь распакованный файл, а размер распакованных данных,
+ * ожидающих разбора, ограничен запросами парсера.
+ */
+public enum Compression {
+    
+    NONE(".csv", null),
+    GZIP(".csv.gz", GzipDecoder::new),
+    ZSTD(".csv.zst", ZstdDecoder::new);
+    
+    /**
+     * Размер буфера распакованных данных.
+     */
+    static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    
+    private final String extension;
+    private final Supplier<StreamDecoder> decoderFactory;
+    
+    Compression(String extension, Supplier<StreamDecoder> decoderFactory) {
+        this.extension = extension;
+        this.decoderFactory = decoderFactory;
+    }
+    
+    public String extension() {
+        return extension;
+    }
+    
+    /**
+     * Определяет сжатие по имени файла.
+     *
+     * @param filename имя файла
+     * @return сжатие или null, если файл не является CSV файлом поддерживаемого формата
+     */
+    public static Compression forFileName(String filename) {
+        if (filename == null) {
+            return null;
+        }
+        String name = filename.toLowerCase(Locale.ROOT);
+        for (Compression compression : values()) {
+            if (name.endsWith(compression.extension)) {
+                return compression;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Распаковывает содержимое файла. Если архив поврежден или обрезан, поток завершается
+     * ошибкой {@link org.example.reward.exception.InvalidFileFormatException}.
+     *
+     * @param content содержимое файла в виде потока буферов
+     * @return Flux<DataBuffer> распакованное содержимое
+     */
+    public Flux<DataBuffer> decode(Flux<DataBuffer> content) {
+        if (decoderFactory == null) {
+            return content;
+        }
+        return Flux.using(
+                decoderFactory::get,
+                decoder -> content
+                    .concatMap(buffer -> decode(decoder, buffer), 1)
+                    .concatWith(Mono.fromRunnable(decoder::finish)),
+                StreamDecoder::close)
+            .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+    
+    private static Flux<DataBuffer> decode(StreamDecoder decoder, DataBuffer buffer) {
+        return Flux.using(
+            buffer::readableByteBuffers,
+            inputs -> Flux.fromIterable(() -> inputs).concatMap(input -> drain(decoder, input)),
+            inputs -> {
+                inputs.close();
+                DataBufferUtils.release(buffer);
+            });
+    }
+    
+    /**
+     * Распаковывает входной буфер, создавая очередной выходной буфер только по запросу.
+     */
+    private static Flux<DataBuffer> drain(StreamDecoder decoder, ByteBuffer input) {
+        return Flux.defer(() -> {
+            decoder.setInput(input);
+            return Flux.<DataBuffer>generate(sink -> {
+                byte[] output = new byte[OUTPUT_BUFFER_SIZE];
+                int length = decoder.read(output);
+                if (length == 0) {
+                    sink.complete();
+                } else {
+                    sink.next(DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(output, 0, length)));
+                }
+            });
+        });
+    }
+}
@@ -0,0 +1,219 @@
+package org.example.reward.compression;
+
+import org.example.reward.exception.InvalidFileFormatException;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Потоковая распаковка gzip (RFC 1952) через {@link Inflater}.
+ *
+ * {@link java.util.zip.GZIPInputStream} читает данные сам и блокирует поток, поэтому заголовок
+ * и окончание архива разбираются здесь, а Inflater распаковывает только данные deflate. Заголовок
+ * и окончание могут приходить в разных частях входных данных. Поддерживаются архивы из
+ * нескольких последовательных частей (например, результат cat a.gz b.gz); контрольная сумма
+ * и размер каждой части проверяются.
+ */
+final class GzipDecoder implements StreamDecoder {
+    
+    private static final int ID1 = 0x1f;
+    private static final int ID2 = 0x8b;
+    private static final int CM_DEFLATE = 8;
+    
+    private static final int FIXED_HEADER_LENGTH = 10;
+    private static final int TRAILER_LENGTH = 8;
+    
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    
+    private enum State { HEADER, EXTRA_LENGTH, EXTRA, NAME, COMMENT, HEADER_CRC, DATA, TRAILER }
+    
+    private final Inflater inflater = new Inflater(true);
+    private final CRC32 crc = new CRC32();
+    private final byte[] header = new byte[FIXED_HEADER_LENGTH];
+    private final byte[] trailer = new byte[TRAILER_LENGTH];
+    
+    private ByteBuffer input = ByteBuffer.allocate(0);
+    private State state = State.HEADER;
+    private int position;
+    private int flags;
+    private int extraLength;
+    private long size;
+    private int members;
+    
+    @Override
+    public void setInput(ByteBuffer input) {
+        this.input = input;
+        if (state == State.DATA) {
+            inflater.setInput(input);
+        }
+    }
+    
+    @Override
+    public int read(byte[] output) {
+        while (true) {
+            switch (state) {
+                case DATA -> {
+                    int length = inflate(output);
+                    if (length > 0) {
+                        crc.update(output, 0, length);
+                        size += length;
+                        return length;
+                    }
+                    if (inflater.finished()) {
+                        next(State.TRAILER);
+                    } else if (inflater.needsInput()) {
+                        return 0;
+                    } else if (inflater.needsDictionary()) {
+                        throw invalid("для распаковки требуется словарь");
+                    }
+                }
+                case TRAILER -> {
+                    position = fill(trailer, position);
+                    if (position < TRAILER_LENGTH) {
+                        return 0;
+                    }
+                    checkTrailer();
+                    members++;
+                    next(State.HEADER);
+                }
+                default -> {
+                    if (!input.hasRemaining()) {
+                        return 0;
+                    }
+                    readHeader();
+                }
+            }
+        }
+    }
+    
+    @Override
+    public void finish() {
+        if (state != State.HEADER || position > 0 || members == 0) {
+            throw invalid("архив обрезан");
+        }
+    }
+    
+    @Override
+    public void close() {
+        inflater.end();
+    }
+    
+    private int inflate(byte[] output) {
+        try {
+            return inflater.inflate(output);
+        } catch (DataFormatException e) {
+            throw new InvalidFileFormatException("Файл не является корректным gzip архивом: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Разбирает доступные байты заголовка части архива (RFC 1952, раздел 2.3).
+     */
+    private void readHeader() {
+        switch (state) {
+            case HEADER -> {
+                position = fill(header, position);
+                if (position == FIXED_HEADER_LENGTH) {
+                    if ((header[0] & 0xff) != ID1 || (header[1] & 0xff) != ID2) {
+                        throw invalid("неверная сигнатура");
+                    }
+                    if (header[2] != CM_DEFLATE) {
+                        throw invalid("неподдерживаемый метод сжатия " + header[2]);
+                    }
+                    flags = header[3] & 0xff;
+                    extraLength = 0;
+                    next((flags & FEXTRA) != 0 ? State.EXTRA_LENGTH : State.NAME);
+                }
+            }
+            case EXTRA_LENGTH -> {
+                extraLength |= (input.get() & 0xff) << (8 * position++);
+                if (position == 2) {
+                    next(State.EXTRA);
+                }
+            }
+            case EXTRA -> {
+                int skipped = Math.min(extraLength - position, input.remaining());
+                input.position(input.position() + skipped);
+                position += skipped;
+                if (position == extraLength) {
+                    next(State.NAME);
+                }
+            }
+            case NAME -> {
+                if ((flags & FNAME) == 0 || skipString()) {
+                    next(State.COMMENT);
+                }
+            }
+            case COMMENT -> {
+                if ((flags & FCOMMENT) == 0 || skipString()) {
+                    next(State.HEADER_CRC);
+                }
+            }
+            case HEADER_CRC -> {
+                if ((flags & FHCRC) != 0 && position < 2) {
+                    input.get();
+                    position++;
+                    return;
+                }
+                inflater.reset();
+                inflater.setInput(input);
+                crc.reset();
+                size = 0;
+                next(State.DATA);
+            }
+            default -> throw new IllegalStateException(state.name());
+        }
+    }
+    
+    /**
+     * Пропускает строку, завершающуюся нулевым байтом.
+     *
+     * @return true, если конец строки найден
+     */
+    private boolean skipString() {
+        while (input.hasRemaining()) {
+            if (input.get() == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void checkTrailer() {
+        long expectedCrc = readInt(trailer, 0);
+        long expectedSize = readInt(trailer, 4);
+        if (expectedCrc != crc.getValue()) {
+            throw invalid("неверная контрольная сумма");
+        }
+        if (expectedSize != (size & 0xffffffffL)) {
+            throw invalid("неверный размер распакованных данных");
+        }
+    }
+    
+    private int fill(byte[] target, int from) {
+        int count = Math.min(target.length - from, input.remaining());
+        input.get(target, from, count);
+        return from + count;
+    }
+    
+    private void next(State next) {
+        state = next;
+        position = 0;
+    }
+    
+    private static long readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xffL)
+            | (bytes[offset + 1] & 0xffL) << 8
+            | (bytes[offset + 2] & 0xffL) << 16
+            | (bytes[offset + 3] & 0xffL) << 24;
+    }
+    
+    private static InvalidFileFormatException invalid(String reason) {
+        return new InvalidFileFormatException("Файл не является корректным gzip архивом: " + reason);
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.reward.compression;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Потоковый распаковщик: сжатые данные передаются частями по мере получения.
+ * Экземпляр не потокобезопасен.
+ */
+interface StreamDecoder extends AutoCloseable {
+    
+    /**
+     * Передает очередную часть сжатых данных. Предыдущая часть к этому моменту
+     * должна быть полностью прочитана через {@link #read(byte[])}.
+     */
+    void setInput(ByteBuffer input);
+    
+    /**
+     * Распаковывает данные в output.
+     *
+     * @return количество записанных байтов; 0, если для продолжения нужна следующая часть сжатых данных
+     */
+    int read(byte[] output);
+    
+    /**
+     * Проверяет, что сжатые данные закончились на границе архива.
+     */
+    void finish();
+    
+    @Override
+    void close();
+}
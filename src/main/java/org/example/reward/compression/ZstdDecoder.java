@@ -0,0 +1,78 @@
+package org.example.reward.compression;
+
+import com.github.luben.zstd.ZstdDecompressCtx;
+import com.github.luben.zstd.ZstdException;
+import org.example.reward.exception.InvalidFileFormatException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Потоковая распаковка zstd через zstd-jni. Потоковый API zstd-jni работает только
+ * с буферами вне кучи, поэтому входные данные в куче копируются в промежуточный буфер.
+ * Поддерживаются архивы из нескольких последовательных фреймов.
+ */
+final class ZstdDecoder implements StreamDecoder {
+    
+    private final ZstdDecompressCtx context = new ZstdDecompressCtx();
+    private final ByteBuffer output = ByteBuffer.allocateDirect(Compression.OUTPUT_BUFFER_SIZE);
+    
+    private ByteBuffer directInput = ByteBuffer.allocateDirect(0);
+    private ByteBuffer input = directInput;
+    
+    /**
+     * Последний вызов заполнил выходной буфер: часть распакованных данных может оставаться
+     * внутри распаковщика, даже если входные данные закончились.
+     */
+    private boolean outputFull;
+    private boolean frameFinished;
+    private boolean started;
+    
+    @Override
+    public void setInput(ByteBuffer input) {
+        if (input.isDirect()) {
+            this.input = input;
+            return;
+        }
+        if (directInput.capacity() < input.remaining()) {
+            directInput = ByteBuffer.allocateDirect(input.remaining());
+        }
+        directInput.clear();
+        directInput.put(input);
+        directInput.flip();
+        this.input = directInput;
+    }
+    
+    @Override
+    public int read(byte[] output) {
+        while (input.hasRemaining() || outputFull) {
+            this.output.clear().limit(Math.min(output.length, this.output.capacity()));
+            try {
+                frameFinished = context.decompressDirectByteBufferStream(this.output, input);
+            } catch (ZstdException e) {
+                throw new InvalidFileFormatException("Файл не является корректным zstd архивом: " + e.getMessage(), e);
+            }
+            started = true;
+            outputFull = !this.output.hasRemaining();
+            
+            this.output.flip();
+            int length = this.output.remaining();
+            if (length > 0) {
+                this.output.get(output, 0, length);
+                return length;
+            }
+        }
+        return 0;
+    }
+    
+    @Override
+    public void finish() {
+        if (!started || !frameFinished) {
+            throw new InvalidFileFormatException("Файл не является корректным zstd архивом: архив обрезан");
+        }
+    }
+    
+    @Override
+    public void close() {
+        context.close();
+    }
+}
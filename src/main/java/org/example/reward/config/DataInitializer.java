@@ -6,6 +6,8 @@ import org.example.reward.entity.Employee;
 import org.example.reward.repository.EmployeeRepository;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 
@@ -13,9 +15,11 @@ import java.util.Arrays;
 import java.util.List;
 
 /**
- * Компонент для локальной инициализации и проверки данных и работы репозитория
+ * Компонент для локальной инициализации и проверки данных и работы репозитория.
+ * Выполняется первым из CommandLineRunner, до загрузки файлов в {@link FileIngestRunner}.
  */
 @Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
 @Slf4j
 @RequiredArgsConstructor
 @ConditionalOnProperty(name = "app.data.init.enabled", havingValue = "true", matchIfMissing = true)
@@ -0,0 +1,42 @@
+package org.example.reward.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.reward.dto.RewardUploadResponse;
+import org.example.reward.service.LocalFileIngestService;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Загрузка файлов с сервера при запуске приложения (app.rewards.ingest.on-startup), например:
+ * <pre>
+ * java -jar TestTask-1.0-SNAPSHOT.jar --spring.main.web-application-type=none \
+ *     --app.rewards.ingest.base-dir=/mnt/exports --app.rewards.ingest.on-startup=rewards_2024.csv
+ * </pre>
+ * Без веб-сервера приложение завершается после загрузки всех файлов.
+ * Выполняется после {@link DataInitializer}, чтобы загружаемые награды видели начальных сотрудников.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@Slf4j
+@RequiredArgsConstructor
+public class FileIngestRunner implements CommandLineRunner {
+    
+    private final LocalFileIngestService localFileIngestService;
+    private final RewardProperties rewardProperties;
+    
+    @Override
+    public void run(String... args) {
+        List<String> files = rewardProperties.getIngest().getOnStartup();
+        
+        for (String file : files) {
+            log.info("Загрузка файла при запуске: {}", file);
+            RewardUploadResponse response = localFileIngestService.ingest(file, false).block();
+            log.info("Файл {} загружен: {}", file, response.message());
+        }
+    }
+}
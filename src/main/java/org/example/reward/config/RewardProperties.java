@@ -0,0 +1,285 @@
+package org.example.reward.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки обработки загружаемых наград (префикс app.rewards).
+ */
+@Data
+@Validated
+@ConfigurationProperties(prefix = "app.rewards")
+public class RewardProperties {
+    
+    /**
+     * Максимальное количество пачек одной загрузки, обрабатываемых одновременно.
+     * Каждая пачка занимает соединение из пула R2DBC на время проверки и вставки.
+     */
+    @Min(1)
+    private int concurrency = 4;
+    
+    /**
+     * Количество пачек, запрашиваемых заранее у источника для каждой обрабатываемой пачки.
+     */
+    @Min(1)
+    private int prefetch = 1;
+    
+    /**
+     * Сохранять пачки строго в порядке следования в файле: сотрудники проверяются параллельно
+     * (до concurrency пачек, flatMapSequential), а вставка следующей пачки начинается после
+     * завершения предыдущей (concatMap).
+     */
+    private boolean ordered = false;
+    
+    /**
+     * Завершать загрузку ошибкой, если награда уже сохранена ранее (совпадают employee_id, reward_id
+     * и received_date, уникальный индекс ux_rewards_natural_key). По умолчанию такие награды
+     * не вставляются повторно, а учитываются как дубликаты.
+     */
+    private boolean failOnDuplicate = false;
+    
+    /**
+     * Период отправки событий прогресса при потоковой загрузке (text/event-stream, application/x-ndjson).
+     */
+    private Duration progressInterval = Duration.ofSeconds(1);
+    
+    @Valid
+    private final Parser parser = new Parser();
+    
+    @Valid
+    private final Batch batch = new Batch();
+    
+    @Valid
+    private final EmployeeCache employeeCache = new EmployeeCache();
+    
+    @Valid
+    private final Jobs jobs = new Jobs();
+    
+    private final Fingerprint fingerprint = new Fingerprint();
+    
+    private final Checkpoint checkpoint = new Checkpoint();
+    
+    @Valid
+    private final Rejects rejects = new Rejects();
+    
+    private final Ingest ingest = new Ingest();
+    
+    @Valid
+    private final DropFolder dropFolder = new DropFolder();
+    
+    @Valid
+    private final Query query = new Query();
+    
+    @Valid
+    private final QueryCache queryCache = new QueryCache();
+    
+    @Data
+    public static class Parser {
+        
+        /**
+         * Количество порций файла, разбираемых одновременно на Schedulers.parallel().
+         * При значении 1 файл разбирается последовательно в потоке получения данных.
+         */
+        @Min(1)
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        
+        /**
+         * Минимальный размер порции файла для параллельного разбора; порция завершается
+         * на границе записи.
+         */
+        private DataSize chunkSize = DataSize.ofMegabytes(1);
+    }
+    
+    @Data
+    public static class Batch {
+        
+        /**
+         * Максимальное количество записей в одной пачке вставки.
+         */
+        @Min(1)
+        private int size = 1000;
+        
+        /**
+         * Максимальное время накопления пачки: неполная пачка записывается по истечении этого времени.
+         */
+        private Duration window = Duration.ofMillis(200);
+    }
+    
+    @Data
+    public static class EmployeeCache {
+        
+        /**
+         * Включает кэш идентификаторов сотрудников для проверки записей без обращения к БД.
+         */
+        private boolean enabled = true;
+        
+        /**
+         * Время жизни загруженного снимка, после которого он перезагружается.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+        
+        /**
+         * Максимальное количество ID в кэше; при большем числе сотрудников кэш не используется.
+         */
+        private int maxSize = 10_000_000;
+    }
+    
+    @Data
+    public static class Jobs {
+        
+        /**
+         * Максимальное количество одновременно выполняемых асинхронных заданий загрузки.
+         */
+        @Min(1)
+        private int maxConcurrent = 2;
+        
+        /**
+         * Каталог, куда сохраняются файлы заданий до их обработки.
+         */
+        private Path spoolDir = Path.of(System.getProperty("java.io.tmpdir"), "reward-uploads");
+        
+        /**
+         * Период сохранения прогресса выполняемого задания в БД.
+         */
+        private Duration progressInterval = Duration.ofSeconds(1);
+    }
+    
+    @Data
+    public static class Fingerprint {
+        
+        /**
+         * Возвращать сохраненный результат для побайтно одинакового файла (по SHA-256 содержимого)
+         * вместо повторной обработки. Файл при этом сначала целиком сохраняется во временный каталог
+         * app.rewards.jobs.spool-dir, и обработка начинается только после его получения, поэтому
+         * по умолчанию выключено: загрузка разбирается потоково, по мере получения буферов.
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Время, в течение которого сохраненный результат обработки файла считается актуальным.
+         */
+        private Duration ttl = Duration.ofDays(7);
+    }
+    
+    @Data
+    public static class Checkpoint {
+        
+        /**
+         * Сохранять загружаемый файл порциями в отдельных транзакциях с контрольной точкой, чтобы
+         * повторная загрузка того же файла после сбоя продолжалась с контрольной точки.
+         * Используется только вместе с отпечатками файлов (app.rewards.fingerprint.enabled).
+         * Выключено по умолчанию: порции сохраняются строго последовательно, без пакетного окна
+         * и без параллельных вставок (app.rewards.batch.window, app.rewards.ordered, app.rewards.concurrency, app.rewards.prefetch).
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Время, в течение которого контрольная точка незавершенной загрузки действительна.
+         */
+        private Duration ttl = Duration.ofDays(1);
+    }
+    
+    @Data
+    public static class Rejects {
+        
+        /**
+         * Максимальное количество отклоненных строк, возвращаемых в ответе нестрогой загрузки
+         * (?lenient=true). Общее количество отклоненных строк учитывается полностью.
+         */
+        @Min(0)
+        private int maxStored = 100;
+    }
+    
+    @Data
+    public static class Ingest {
+        
+        /**
+         * Каталог (например, общий том), из которого разрешено загружать файлы по пути на сервере
+         * (POST /api/rewards/ingest). Если не задан, загрузка по пути отключена.
+         */
+        private Path baseDir;
+        
+        /**
+         * Размер отображаемого в память участка файла; файл читается такими участками последовательно.
+         */
+        private DataSize mapSize = DataSize.ofMegabytes(64);
+        
+        /**
+         * Файлы (относительно base-dir), загружаемые при запуске приложения.
+         */
+        private List<String> onStartup = new ArrayList<>();
+    }
+    
+    @Data
+    public static class DropFolder {
+        
+        /**
+         * Включает загрузку CSV файлов, появляющихся в каталоге dir.
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Каталог для входящих файлов; обработанные файлы переносятся в его подкаталоги
+         * processing, done и failed.
+         */
+        private Path dir;
+        
+        /**
+         * Максимальное количество одновременно обрабатываемых файлов; остальные ждут в каталоге.
+         */
+        @Min(1)
+        private int maxConcurrent = 2;
+        
+        /**
+         * Файл берется в обработку, когда его размер не меняется в течение этого времени
+         * (защита от чтения файла, который еще копируется в каталог).
+         */
+        private Duration settleTime = Duration.ofSeconds(1);
+    }
+    
+    @Data
+    public static class Query {
+        
+        /**
+         * Размер страницы API чтения наград, если параметр limit не задан.
+         */
+        @Min(1)
+        private int defaultPageSize = 100;
+        
+        /**
+         * Максимально допустимое значение параметра limit.
+         */
+        @Min(1)
+        private int maxPageSize = 10_000;
+    }
+    
+    @Data
+    public static class QueryCache {
+        
+        /**
+         * Включает кэш страниц наград сотрудника (GET /api/employees/{id}/rewards).
+         */
+        private boolean enabled = true;
+        
+        /**
+         * Максимальное количество страниц в кэше.
+         */
+        @Min(1)
+        private long maxSize = 10_000;
+        
+        /**
+         * Время жизни страницы в кэше. Страницы сотрудника удаляются и раньше,
+         * при сохранении его новых наград.
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.reward.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.reward.dto.RewardUploadResponse;
+import org.example.reward.exception.InvalidFileFormatException;
+import org.example.reward.service.CsvParserService;
+import org.example.reward.service.LocalFileIngestService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+
+@Slf4j
+@RestController
+@RequestMapping("/api/rewards")
+@RequiredArgsConstructor
+public class FileIngestController {
+    
+    private final LocalFileIngestService localFileIngestService;
+    
+    /**
+     * Загружает CSV файл с наградами, уже лежащий на сервере в каталоге app.rewards.ingest.base-dir.
+     * 
+     * @param path путь к файлу относительно каталога загрузки
+     * @param lenient нестрогий режим: строки с ошибками не прерывают загрузку, а возвращаются в ответе
+     * @return Mono<RewardUploadResponse> результат обработки
+     */
+    @PostMapping("/ingest")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<RewardUploadResponse> ingestFile(@RequestParam("path") String path,
+                                                 @RequestParam(value = "lenient", defaultValue = "false") boolean lenient) {
+        log.info("Получен запрос на загрузку файла с сервера: {}", path);
+        
+        if (!CsvParserService.isSupportedFile(path)) {
+            return Mono.error(new InvalidFileFormatException(RewardController.UNSUPPORTED_FILE_MESSAGE));
+        }
+        
+        return localFileIngestService.ingest(path, lenient);
+    }
+}
@@ -2,11 +2,15 @@ package org.example.reward.controller;
 
 import lombok.extern.slf4j.Slf4j;
 import org.example.reward.exception.InvalidFileFormatException;
+import org.example.reward.exception.InvalidIngestPathException;
+import org.example.reward.exception.InvalidQueryParameterException;
 import org.example.reward.exception.InvalidRecordException;
+import org.example.reward.exception.UploadJobNotFoundException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ServerWebInputException;
 
 import java.util.Map;
 
@@ -31,6 +35,38 @@ public class GlobalExceptionHandler {
             .body(Map.of("error", "Неверный формат записи", "message", e.getMessage()));
     }
     
+    @ExceptionHandler(InvalidIngestPathException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidIngestPath(InvalidIngestPathException e) {
+        log.error("Неверный путь к файлу: {}", e.getMessage());
+        return ResponseEntity
+            .status(HttpStatus.BAD_REQUEST)
+            .body(Map.of("error", "Неверный путь к файлу", "message", e.getMessage()));
+    }
+    
+    @ExceptionHandler(InvalidQueryParameterException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidQueryParameter(InvalidQueryParameterException e) {
+        log.warn("Неверный параметр запроса: {}", e.getMessage());
+        return ResponseEntity
+            .status(HttpStatus.BAD_REQUEST)
+            .body(Map.of("error", "Неверный параметр запроса", "message", e.getMessage()));
+    }
+    
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<Map<String, String>> handleServerWebInput(ServerWebInputException e) {
+        log.warn("Неверный параметр запроса: {}", e.getReason());
+        return ResponseEntity
+            .status(HttpStatus.BAD_REQUEST)
+            .body(Map.of("error", "Неверный параметр запроса", "message", String.valueOf(e.getReason())));
+    }
+    
+    @ExceptionHandler(UploadJobNotFoundException.class)
+    public ResponseEntity<Map<String, String>> handleUploadJobNotFound(UploadJobNotFoundException e) {
+        log.warn("Задание не найдено: {}", e.getMessage());
+        return ResponseEntity
+            .status(HttpStatus.NOT_FOUND)
+            .body(Map.of("error", "Задание не найдено", "message", e.getMessage()));
+    }
+    
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, String>> handleGenericException(Exception e) {
         log.error("Неожиданная ошибка", e);
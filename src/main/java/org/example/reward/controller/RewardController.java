@@ -2,13 +2,19 @@ package org.example.reward.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.reward.config.RewardProperties;
+import org.example.reward.dto.RewardRecord;
 import org.example.reward.dto.RewardUploadResponse;
+import org.example.reward.dto.UploadProgressEvent;
+import org.example.reward.entity.UploadJobStatus;
 import org.example.reward.exception.InvalidFileFormatException;
 import org.example.reward.exception.InvalidRecordException;
+import org.example.reward.metrics.RewardMetrics;
 import org.example.reward.service.CsvParserService;
 import org.example.reward.service.RewardService;
+import org.example.reward.service.UploadFingerprintService;
+import org.example.reward.service.UploadProgress;
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.multipart.FilePart;
@@ -16,6 +22,10 @@ import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
 
 @Slf4j
 @RestController
@@ -23,49 +33,45 @@ import reactor.core.publisher.Mono;
 @RequiredArgsConstructor
 public class RewardController {
     
+    static final String UNSUPPORTED_FILE_MESSAGE = "Поддерживаются только CSV файлы (.csv, .csv.gz, .csv.zst) и файлы в двоичном формате (.rwb)";
+    
     private final CsvParserService csvParserService;
     private final RewardService rewardService;
+    private final RewardProperties rewardProperties;
+    private final UploadFingerprintService uploadFingerprintService;
+    private final RewardMetrics rewardMetrics;
     
     /**
      * Загружает CSV файл с наградами сотрудников.
      * 
-     * @param file загружаемый CSV файл
+     * @param file загружаемый CSV файл, в том числе сжатый gzip (.csv.gz) или zstd (.csv.zst),
+     *             или файл в двоичном формате (.rwb)
+     * @param lenient нестрогий режим: строки с ошибками не прерывают загрузку, а возвращаются в ответе
      * @return Mono<RewardUploadResponse> результат обработки
      */
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @ResponseStatus(HttpStatus.OK)
-    public Mono<RewardUploadResponse> uploadRewards(@RequestPart("file") FilePart file) {
-        log.info("Получен запрос на загрузку файла: {}", file.filename());
+    public Mono<RewardUploadResponse> uploadRewards(@RequestPart("file") FilePart file,
+                                                    @RequestParam(value = "lenient", defaultValue = "false") boolean lenient) {
+        log.info("Получен запрос на загрузку файла: {}, нестрогий режим: {}", file.filename(), lenient);
         
-        if (!isCsvFile(file.filename())) {
-            return Mono.error(new InvalidFileFormatException("Поддерживаются только CSV файлы"));
+        if (!CsvParserService.isSupportedFile(file.filename())) {
+            return Mono.error(new InvalidFileFormatException(UNSUPPORTED_FILE_MESSAGE));
         }
         
-        return file.content()
-            .collectList()
-            .map(dataBuffers -> {
-                int totalSize = dataBuffers.stream()
-                    .mapToInt(org.springframework.core.io.buffer.DataBuffer::readableByteCount)
-                    .sum();
-                
-                byte[] allBytes = new byte[totalSize];
-                int offset = 0;
-                
-                for (org.springframework.core.io.buffer.DataBuffer buffer : dataBuffers) {
-                    int readableBytes = buffer.readableByteCount();
-                    buffer.read(allBytes, offset, readableBytes);
-                    DataBufferUtils.release(buffer);
-                    offset += readableBytes;
-                }
-                
-                log.debug("Прочитано {} байт из файла {}", totalSize, file.filename());
-                return new java.io.ByteArrayInputStream(allBytes);
-            })
-            .flatMap(inputStream -> 
-                csvParserService.parseCsv(inputStream)
-                    .collectList()
-                    .flatMap(records -> rewardService.processRewards(Flux.fromIterable(records)))
-            )
+        // Записи передаются в обработку потоком; если файл не прошел проверку заголовка,
+        // обработка в БД не запускается. Повторно загруженный файл не обрабатывается
+        Mono<RewardUploadResponse> upload = uploadFingerprintService.processOnce(receive(file), (content, fingerprint) -> {
+            if (!lenient) {
+                return process(csvParserService.parseFile(file.filename(), content, null),
+                    records -> rewardService.processRewards(records, new UploadProgress(), fingerprint));
+            }
+            UploadProgress progress = new UploadProgress(rewardProperties.getRejects().getMaxStored());
+            return process(csvParserService.parseFile(file.filename(), content, progress::recordRejected),
+                records -> rewardService.processRewards(records, progress, fingerprint));
+        });
+        
+        return rewardMetrics.trackUpload(upload)
             .onErrorResume(InvalidFileFormatException.class, e -> {
                 log.error("Ошибка формата файла: {}", e.getMessage());
                 return Mono.error(e);
@@ -80,8 +86,85 @@ public class RewardController {
             });
     }
     
-    private boolean isCsvFile(String filename) {
-        return filename != null && filename.toLowerCase().endsWith(".csv");
+    /**
+     * Загружает CSV файл с наградами, отправляя клиенту события прогресса по ходу обработки
+     * (выбирается заголовком Accept: text/event-stream или application/x-ndjson).
+     * События отправляются с периодом app.rewards.progress-interval, даже если счетчики
+     * не изменились, что позволяет клиенту обнаружить зависшую загрузку.
+     * 
+     * @param file загружаемый CSV файл, в том числе сжатый, или файл в двоичном формате
+     * @param lenient нестрогий режим: строки с ошибками не прерывают загрузку
+     * @return Flux<UploadProgressEvent> события прогресса, последнее содержит итог обработки
+     */
+    @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+        produces = {MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<UploadProgressEvent> uploadRewardsWithProgress(@RequestPart("file") FilePart file,
+                                                               @RequestParam(value = "lenient", defaultValue = "false") boolean lenient) {
+        log.info("Получен запрос на загрузку файла с отслеживанием прогресса: {}", file.filename());
+        
+        if (!CsvParserService.isSupportedFile(file.filename())) {
+            return Flux.error(new InvalidFileFormatException(UNSUPPORTED_FILE_MESSAGE));
+        }
+        
+        UploadProgress progress = lenient
+            ? new UploadProgress(rewardProperties.getRejects().getMaxStored())
+            : new UploadProgress();
+        
+        Mono<RewardUploadResponse> upload = uploadFingerprintService.processOnce(receive(file),
+            (content, fingerprint) -> process(
+                csvParserService.parseFile(file.filename(), content, lenient ? progress::recordRejected : null),
+                records -> rewardService.processRewards(records, progress, fingerprint)));
+        
+        // После начала потока статус ответа изменить нельзя, поэтому ошибка передается последним событием.
+        // Итоговые счетчики берутся из результата: для повторного файла счетчики прогресса остаются нулевыми
+        Flux<UploadProgressEvent> resultEvent = rewardMetrics.trackUpload(upload)
+            .map(response -> new UploadProgressEvent(UploadJobStatus.COMPLETED, response.totalRecords(),
+                response.savedRecords(), response.skippedRecords(), response.duplicateRecords(), response.rejectedRecords(),
+                response.message()))
+            .onErrorResume(e -> {
+                log.error("Ошибка при обработке файла {}: {}", file.filename(), e.getMessage());
+                return Mono.just(progressEvent(UploadJobStatus.FAILED, progress, e.getMessage()));
+            })
+            .flux();
+        
+        // Загрузка запускается одной подпиской на весь ответ: при отключении клиента она отменяется.
+        // События прогресса завершаются до передачи итогового события
+        return resultEvent.publish(result -> Flux.merge(
+            Flux.interval(Duration.ZERO, rewardProperties.getProgressInterval())
+                .onBackpressureDrop()
+                .takeUntilOther(result)
+                .map(tick -> progressEvent(UploadJobStatus.RUNNING, progress, null)),
+            result));
     }
+    
+    private Flux<DataBuffer> receive(FilePart file) {
+        AtomicLong receivedBytes = new AtomicLong();
+        
+        return file.content()
+            .doOnNext(buffer -> {
+                receivedBytes.addAndGet(buffer.readableByteCount());
+                rewardMetrics.bytesReceived(buffer.readableByteCount());
+            })
+            .doOnComplete(() -> log.debug("Прочитано {} байт из файла {}", receivedBytes.get(), file.filename()));
+    }
+    
+    private UploadProgressEvent progressEvent(UploadJobStatus status, UploadProgress progress, String message) {
+        return new UploadProgressEvent(status, progress.totalRecords(), progress.savedRecords(),
+            progress.skippedRecords(), progress.duplicateRecords(), progress.rejectedRecords(), message);
+    }
+    
+    /**
+     * Запускает обработку записей, только если поток не завершился ошибкой на первом элементе
+     * (например, неверный заголовок файла).
+     */
+    private static Mono<RewardUploadResponse> process(Flux<RewardRecord> records,
+                                                      Function<Flux<RewardRecord>, Mono<RewardUploadResponse>> processing) {
+        return records
+            .switchOnFirst((first, rest) -> first.isOnError()
+                ? Mono.<RewardUploadResponse>error(first.getThrowable())
+                : processing.apply(rest))
+            .single();
+    }
+    
 }
 
@@ -0,0 +1,68 @@
+package org.example.reward.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.reward.dto.RewardAggregateView;
+import org.example.reward.dto.RewardView;
+import org.example.reward.service.RewardQueryService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+
+/**
+ * Чтение сохраненных наград. Награды возвращаются потоком в формате NDJSON (по одной на строку)
+ * в порядке (receivedDate, id); следующая страница запрашивается с afterDate и afterId
+ * последней полученной награды.
+ */
+@RestController
+@RequiredArgsConstructor
+public class RewardQueryController {
+    
+    private final RewardQueryService rewardQueryService;
+    
+    /**
+     * Возвращает страницу наград всех сотрудников за период [from, to).
+     */
+    @GetMapping(value = "/api/rewards", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<RewardView> getRewards(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDate,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer limit) {
+        return rewardQueryService.findRewards(from, to, afterDate, afterId, limit);
+    }
+    
+    /**
+     * Возвращает количество наград по сотрудникам, месяцам и типам наград за месяцы [from, to).
+     * Ответ строится по счетчикам reward_aggregates и не зависит от количества наград.
+     */
+    @GetMapping(value = "/api/rewards/aggregates", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<RewardAggregateView> getAggregates(
+            @RequestParam(required = false) Long employeeId,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        return rewardQueryService.findAggregates(employeeId, from, to);
+    }
+    
+    /**
+     * Возвращает страницу наград сотрудника за период [from, to).
+     */
+    @GetMapping(value = "/api/employees/{employeeId}/rewards", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<RewardView> getEmployeeRewards(
+            @PathVariable long employeeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterDate,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer limit) {
+        return rewardQueryService.findEmployeeRewards(employeeId, from, to, afterDate, afterId, limit);
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.reward.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.reward.dto.UploadJobResponse;
+import org.example.reward.exception.InvalidFileFormatException;
+import org.example.reward.service.CsvParserService;
+import org.example.reward.service.UploadJobService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+
+@Slf4j
+@RestController
+@RequestMapping("/api/rewards")
+@RequiredArgsConstructor
+public class UploadJobController {
+    
+    private final UploadJobService uploadJobService;
+    
+    /**
+     * Принимает CSV файл на асинхронную обработку и сразу возвращает ID задания.
+     * 
+     * @param file загружаемый CSV файл
+     * @return Mono<UploadJobResponse> зарегистрированное задание
+     */
+    @PostMapping(value = "/upload/async", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Mono<UploadJobResponse> submitUpload(@RequestPart("file") FilePart file) {
+        log.info("Получен запрос на асинхронную загрузку файла: {}", file.filename());
+        
+        if (!CsvParserService.isSupportedFile(file.filename())) {
+            return Mono.error(new InvalidFileFormatException(RewardController.UNSUPPORTED_FILE_MESSAGE));
+        }
+        
+        return uploadJobService.submit(file);
+    }
+    
+    /**
+     * Возвращает состояние и прогресс задания загрузки.
+     * 
+     * @param jobId ID задания
+     * @return Mono<UploadJobResponse> состояние задания
+     */
+    @GetMapping("/jobs/{jobId}")
+    public Mono<UploadJobResponse> getJob(@PathVariable Long jobId) {
+        return uploadJobService.getJob(jobId);
+    }
+}
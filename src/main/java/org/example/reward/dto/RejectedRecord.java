@@ -0,0 +1,15 @@
+package org.example.reward.dto;
+
+/**
+ * Строка файла, отклоненная при разборе в нестрогом режиме.
+ *
+ * @param lineNumber номер строки в файле
+ * @param reason причина отклонения
+ * @param content содержимое строки в формате CSV
+ */
+public record RejectedRecord(
+    long lineNumber,
+    String reason,
+    String content
+) {
+}
@@ -0,0 +1,17 @@
+package org.example.reward.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Количество наград одного типа, полученных сотрудником за месяц.
+ *
+ * @param period первый день месяца
+ */
+public record RewardAggregateView(
+    Long employeeId,
+    LocalDate period,
+    Long rewardId,
+    String rewardName,
+    Long rewardCount
+) {
+}
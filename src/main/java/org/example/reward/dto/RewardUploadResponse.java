@@ -1,10 +1,23 @@
 package org.example.reward.dto;
 
+import java.util.List;
+
+/**
+ * Результат обработки файла. rejectedRecords — строки, отклоненные в нестрогом режиме
+ * (не входят в totalRecords); errors — первые из них с номером строки и причиной.
+ */
 public record RewardUploadResponse(
     Integer totalRecords,
     Integer savedRecords,
     Integer skippedRecords,
-    String message
+    Integer duplicateRecords,
+    Integer rejectedRecords,
+    Integer batches,
+    String message,
+    List<RejectedRecord> errors
 ) {
+    
+    public RewardUploadResponse(Integer totalRecords, Integer savedRecords, Integer skippedRecords, String message) {
+        this(totalRecords, savedRecords, skippedRecords, 0, 0, 0, message, List.of());
+    }
 }
-
@@ -0,0 +1,16 @@
+package org.example.reward.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сохраненная награда в ответе API чтения. Пара (receivedDate, id) последней полученной
+ * награды служит курсором следующей страницы (параметры afterDate и afterId).
+ */
+public record RewardView(
+    Long id,
+    Long employeeId,
+    Long rewardId,
+    String rewardName,
+    LocalDateTime receivedDate
+) {
+}
@@ -0,0 +1,19 @@
+package org.example.reward.dto;
+
+import org.example.reward.entity.UploadJobStatus;
+
+import java.time.LocalDateTime;
+
+public record UploadJobResponse(
+    Long jobId,
+    String fileName,
+    UploadJobStatus status,
+    Integer totalRecords,
+    Integer savedRecords,
+    Integer skippedRecords,
+    Integer duplicateRecords,
+    String message,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt
+) {
+}
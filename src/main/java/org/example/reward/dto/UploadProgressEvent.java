@@ -0,0 +1,19 @@
+package org.example.reward.dto;
+
+import org.example.reward.entity.UploadJobStatus;
+
+/**
+ * Событие прогресса загрузки, периодически отправляемое клиенту в потоковом режиме
+ * (text/event-stream или application/x-ndjson). Последнее событие имеет статус
+ * COMPLETED или FAILED.
+ */
+public record UploadProgressEvent(
+    UploadJobStatus status,
+    Integer totalRecords,
+    Integer savedRecords,
+    Integer skippedRecords,
+    Integer duplicateRecords,
+    Integer rejectedRecords,
+    String message
+) {
+}
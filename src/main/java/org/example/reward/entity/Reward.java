@@ -20,10 +20,11 @@ public class Reward {
     
     private Long employeeId;
     
+    /**
+     * ID типа награды в справочнике reward_types.
+     */
     private Long rewardId;
     
-    private String rewardName;
-    
     private LocalDateTime receivedDate;
 }
 
@@ -0,0 +1,22 @@
+package org.example.reward.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Тип награды из справочника reward_types. ID совпадает с rewardId из загружаемых файлов.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("reward_types")
+public class RewardType {
+    
+    @Id
+    private Long id;
+    
+    private String name;
+}
@@ -0,0 +1,30 @@
+package org.example.reward.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+
+/**
+ * Контрольная точка незавершенной загрузки файла: сколько первых записей файла уже сохранено.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("upload_checkpoints")
+public class UploadCheckpoint {
+    
+    /**
+     * SHA-256 содержимого файла в шестнадцатеричном виде.
+     */
+    @Id
+    private String sha256;
+    
+    private Long committedRecords;
+    
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,42 @@
+package org.example.reward.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+
+/**
+ * Отпечаток (SHA-256 содержимого) успешно обработанного файла вместе с результатом его обработки.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("upload_fingerprints")
+public class UploadFingerprint {
+    
+    /**
+     * SHA-256 содержимого файла в шестнадцатеричном виде.
+     */
+    @Id
+    private String sha256;
+    
+    private Long fileSize;
+    
+    private Integer totalRecords;
+    
+    private Integer savedRecords;
+    
+    private Integer skippedRecords;
+    
+    private Integer duplicateRecords;
+    
+    private Integer batches;
+    
+    private String message;
+    
+    private LocalDateTime createdAt;
+}
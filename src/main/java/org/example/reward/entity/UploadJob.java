@@ -0,0 +1,43 @@
+package org.example.reward.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("upload_jobs")
+public class UploadJob {
+    
+    @Id
+    private Long id;
+    
+    private String fileName;
+    
+    private UploadJobStatus status;
+    
+    /**
+     * Путь к сохраненной на диск копии файла; удаляется после завершения задания.
+     */
+    private String spoolPath;
+    
+    private Integer totalRecords;
+    
+    private Integer savedRecords;
+    
+    private Integer skippedRecords;
+    
+    private Integer duplicateRecords;
+    
+    private String message;
+    
+    private LocalDateTime createdAt;
+    
+    private LocalDateTime updatedAt;
+}
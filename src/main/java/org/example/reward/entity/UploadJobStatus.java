@@ -0,0 +1,9 @@
+package org.example.reward.entity;
+
+
+public enum UploadJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
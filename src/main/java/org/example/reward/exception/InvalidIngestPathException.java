@@ -0,0 +1,9 @@
+package org.example.reward.exception;
+
+
+public class InvalidIngestPathException extends RuntimeException {
+    
+    public InvalidIngestPathException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.reward.exception;
+
+
+public class InvalidQueryParameterException extends RuntimeException {
+    
+    public InvalidQueryParameterException(String message) {
+        super(message);
+    }
+}
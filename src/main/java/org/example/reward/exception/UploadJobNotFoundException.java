@@ -0,0 +1,9 @@
+package org.example.reward.exception;
+
+
+public class UploadJobNotFoundException extends RuntimeException {
+    
+    public UploadJobNotFoundException(Long jobId) {
+        super("Задание загрузки не найдено: " + jobId);
+    }
+}
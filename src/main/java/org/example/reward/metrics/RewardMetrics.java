@@ -0,0 +1,163 @@
+package org.example.reward.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Метрики конвейера загрузки наград (Micrometer, публикуются через /actuator/prometheus).
+ *
+ * rewards.upload.bytes — получено байт файлов;
+ * rewards.upload — длительность загрузки (тег outcome), rewards.uploads.in.flight — загрузок в обработке;
+ * rewards.parse.rows — разобрано строк, rewards.parse.errors — ошибки разбора (тег type);
+ * rewards.employees.check — длительность проверки существования сотрудников для пачки;
+ * rewards.insert.batch — длительность вставки пачки;
+ * rewards.records — итоги обработки записей (тег result: saved, skipped, duplicate, rejected);
+ * cache.gets, cache.evictions, cache.size — метрики кэшей Caffeine (тег cache).
+ */
+@Component
+public class RewardMetrics {
+    
+    private final MeterRegistry registry;
+    
+    private final Counter bytesReceived;
+    private final Counter rowsParsed;
+    private final Counter savedRecords;
+    private final Counter skippedRecords;
+    private final Counter duplicateRecords;
+    private final Counter rejectedRecords;
+    
+    private final Timer existenceCheck;
+    private final Timer insertBatch;
+    
+    private final AtomicInteger uploadsInFlight = new AtomicInteger();
+    
+    public RewardMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        
+        this.bytesReceived = Counter.builder("rewards.upload.bytes")
+            .description("Получено байт загружаемых файлов")
+            .baseUnit("bytes")
+            .register(registry);
+        this.rowsParsed = Counter.builder("rewards.parse.rows")
+            .description("Разобрано строк CSV")
+            .register(registry);
+        this.savedRecords = recordsCounter("saved");
+        this.skippedRecords = recordsCounter("skipped");
+        this.duplicateRecords = recordsCounter("duplicate");
+        this.rejectedRecords = recordsCounter("rejected");
+        
+        this.existenceCheck = Timer.builder("rewards.employees.check")
+            .description("Проверка существования сотрудников для пачки записей")
+            .register(registry);
+        this.insertBatch = Timer.builder("rewards.insert.batch")
+            .description("Вставка пачки наград")
+            .register(registry);
+        
+        Gauge.builder("rewards.uploads.in.flight", uploadsInFlight, AtomicInteger::get)
+            .description("Загрузки в обработке")
+            .register(registry);
+    }
+    
+    /**
+     * Метрики без публикации, для использования вне контекста Spring (тесты, бенчмарки).
+     */
+    public static RewardMetrics noop() {
+        return new RewardMetrics(new CompositeMeterRegistry());
+    }
+    
+    /**
+     * Публикует метрики кэша (попадания, промахи, вытеснения, размер). Кэш должен быть
+     * создан с recordStats().
+     */
+    public void monitorCache(Cache<?, ?> cache, String name) {
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+    }
+    
+    public void bytesReceived(long bytes) {
+        bytesReceived.increment(bytes);
+    }
+    
+    public void rowsParsed(int rows) {
+        rowsParsed.increment(rows);
+    }
+    
+    public void parseError(Throwable error) {
+        Counter.builder("rewards.parse.errors")
+            .description("Ошибки разбора CSV файлов")
+            .tag("type", error.getClass().getSimpleName())
+            .register(registry)
+            .increment();
+    }
+    
+    public void recordRejected() {
+        rejectedRecords.increment();
+    }
+    
+    public void recordsSkipped(int count) {
+        skippedRecords.increment(count);
+    }
+    
+    public void batchSaved(int submitted, long saved) {
+        savedRecords.increment(saved);
+        duplicateRecords.increment(submitted - saved);
+    }
+    
+    public <T> Mono<T> timeExistenceCheck(Mono<T> check) {
+        return timed(existenceCheck, check);
+    }
+    
+    public <T> Mono<T> timeInsertBatch(Mono<T> insert) {
+        return timed(insertBatch, insert);
+    }
+    
+    /**
+     * Учитывает загрузку в числе обрабатываемых и измеряет ее длительность с итогом
+     * success, error или cancelled.
+     */
+    public <T> Mono<T> trackUpload(Mono<T> upload) {
+        return Mono.defer(() -> {
+            uploadsInFlight.incrementAndGet();
+            Timer.Sample sample = Timer.start(registry);
+            return upload.doFinally(signal -> {
+                uploadsInFlight.decrementAndGet();
+                sample.stop(Timer.builder("rewards.upload")
+                    .description("Обработка загруженного файла")
+                    .tag("outcome", outcome(signal))
+                    .register(registry));
+            });
+        });
+    }
+    
+    private Counter recordsCounter(String result) {
+        return Counter.builder("rewards.records")
+            .description("Итоги обработки записей о наградах")
+            .tag("result", result)
+            .register(registry);
+    }
+    
+    private static <T> Mono<T> timed(Timer timer, Mono<T> source) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return source.doFinally(signal -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+    
+    private static String outcome(SignalType signal) {
+        return switch (signal) {
+            case ON_ERROR -> "error";
+            case CANCEL -> "cancelled";
+            default -> "success";
+        };
+    }
+}
@@ -0,0 +1,187 @@
+package org.example.reward.parser;
+
+import org.example.reward.exception.InvalidRecordException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Делит поток байтов CSV файла на порции, заканчивающиеся на границе записи, для параллельного
+ * разбора несколькими экземплярами {@link RewardCsvParser}.
+ *
+ * Граница записи — перевод строки вне кавычек; правила открытия и закрытия кавычек повторяют
+ * {@link RewardCsvParser}, поэтому перевод строки внутри поля в кавычках порцию не завершает.
+ * Для каждой порции запоминается номер ее первой строки в исходном файле, чтобы ошибки
+ * разбора указывали на ту же строку, что и при последовательном разборе.
+ *
+ * Поля не разбираются: на каждый байт выполняется только несколько сравнений, поэтому деление
+ * выполняется последовательно в потоке получения данных. Экземпляр не потокобезопасен.
+ */
+public final class CsvChunkSplitter {
+    
+    /**
+     * Ограничение длины записи в байтах файла. Кавычки и CR не входят в длину записи парсера,
+     * поэтому ограничение взято с запасом относительно {@link RewardCsvParser#MAX_ROW_BYTES}.
+     */
+    private static final int MAX_RAW_ROW_BYTES = 2 * RewardCsvParser.MAX_ROW_BYTES;
+    
+    private static final byte QUOTE = '"';
+    private static final byte COMMA = ',';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    
+    /**
+     * Порция файла из целых записей (последняя порция может заканчиваться незавершенной записью).
+     *
+     * @param bytes буфер с байтами порции
+     * @param length количество байтов порции в буфере
+     * @param firstLine номер первой строки порции в исходном файле
+     * @param header порция начинается с заголовка файла
+     */
+    public record Chunk(byte[] bytes, int length, long firstLine, boolean header) {
+        
+        public ByteBuffer content() {
+            return ByteBuffer.wrap(bytes, 0, length);
+        }
+    }
+    
+    private final int chunkSize;
+    
+    private byte[] chunk;
+    private int length;
+    private int rowStart;
+    
+    private long lineNumber = 1;
+    private long rowStartLine = 1;
+    private long chunkFirstLine = 1;
+    private boolean header = true;
+    
+    private boolean inQuotes;
+    private boolean quotePending;
+    private boolean fieldBlank = true;
+    
+    /**
+     * @param chunkSize минимальный размер порции в байтах; порция завершается на первой границе
+     *                  записи после достижения этого размера
+     */
+    public CsvChunkSplitter(int chunkSize) {
+        this.chunkSize = chunkSize;
+        this.chunk = new byte[chunkSize];
+    }
+    
+    /**
+     * Добавляет очередные байты файла и передает в out порции, которые стали полными.
+     * В порцию копируются только байты до ее границы, поэтому размер входного буфера
+     * (например, отображенного в память участка файла) не влияет на объем копирования.
+     */
+    public void feed(ByteBuffer buffer, List<Chunk> out) {
+        int copied = buffer.position();
+        int end = buffer.limit();
+        for (int i = copied; i < end; i++) {
+            if (accept(buffer.get(i))) {
+                rowStartLine = lineNumber;
+                rowStart = length + (i + 1 - copied);
+                if (rowStart >= chunkSize) {
+                    append(buffer, copied, i + 1);
+                    copied = i + 1;
+                    emit(out);
+                }
+            }
+        }
+        append(buffer, copied, end);
+        
+        if (length - rowStart > MAX_RAW_ROW_BYTES) {
+            throw new InvalidRecordException(String.format(
+                "Строка %d: превышена максимальная длина записи (%d байт)", rowStartLine, RewardCsvParser.MAX_ROW_BYTES));
+        }
+    }
+    
+    /**
+     * Передает в out оставшиеся байты последней порцией. Для пустого файла передается пустая
+     * порция с заголовком, чтобы парсер сообщил об отсутствии заголовка.
+     */
+    public void finish(List<Chunk> out) {
+        if (length > 0 || header) {
+            emit(out);
+        }
+    }
+    
+    /**
+     * Обрабатывает байт так же, как {@link RewardCsvParser}, без сохранения полей.
+     *
+     * @return true, если байт завершает запись
+     */
+    private boolean accept(byte b) {
+        if (inQuotes) {
+            if (quotePending) {
+                quotePending = false;
+                if (b == QUOTE) {
+                    fieldBlank = false; // экранированная кавычка ""
+                    return false;
+                }
+                inQuotes = false;
+            } else {
+                if (b == QUOTE) {
+                    quotePending = true;
+                } else {
+                    if (b == LF) {
+                        lineNumber++;
+                    }
+                    if (!isWhitespace(b)) {
+                        fieldBlank = false;
+                    }
+                }
+                return false;
+            }
+        }
+        
+        switch (b) {
+            case QUOTE -> {
+                // Кавычка открывает поле, только если до нее в поле были одни пробелы
+                if (fieldBlank) {
+                    inQuotes = true;
+                } else {
+                    fieldBlank = false;
+                }
+            }
+            case COMMA -> fieldBlank = true;
+            case LF -> {
+                fieldBlank = true;
+                lineNumber++;
+                return true;
+            }
+            case CR -> {
+                // CR из CRLF парсер не сохраняет
+            }
+            default -> {
+                if (!isWhitespace(b)) {
+                    fieldBlank = false;
+                }
+            }
+        }
+        return false;
+    }
+    
+    private void emit(List<Chunk> out) {
+        out.add(new Chunk(chunk, length, chunkFirstLine, header));
+        chunk = new byte[chunkSize];
+        length = 0;
+        rowStart = 0;
+        chunkFirstLine = rowStartLine;
+        header = false;
+    }
+    
+    private void append(ByteBuffer buffer, int from, int to) {
+        int count = to - from;
+        if (length + count > chunk.length) {
+            chunk = Arrays.copyOf(chunk, Math.max(length + count, chunk.length * 2));
+        }
+        buffer.get(from, chunk, length, count);
+        length += count;
+    }
+    
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t';
+    }
+}
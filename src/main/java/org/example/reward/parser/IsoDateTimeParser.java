@@ -0,0 +1,139 @@
+package org.example.reward.parser;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Разбор даты receivedDate из байтов поля. Результат совпадает с
+ * {@code LocalDateTime.parse(value, DateTimeFormatter.ISO_DATE_TIME)}.
+ *
+ * Основной вид даты {@code yyyy-MM-ddTHH:mm[:ss[.f]]} (дробная часть от 1 до 9 цифр) разбирается
+ * прямо из байтов по фиксированным позициям, без создания строки и без DateTimeFormatter.
+ * Все остальное (смещение или зона, год со знаком, ошибки) передается DateTimeFormatter,
+ * поэтому сообщения об ошибках и пограничные случаи не меняются.
+ *
+ * В файлах даты часто повторяются, поэтому последние разобранные значения хранятся в небольшом
+ * кэше прямого отображения: повторная дата не проверяется и не создается заново. Экземпляр
+ * не потокобезопасен: на каждый парсер файла создается свой.
+ */
+public final class IsoDateTimeParser {
+    
+    private static final DateTimeFormatter ISO_DATE_TIME_FORMATTER = DateTimeFormatter.ISO_DATE_TIME;
+    
+    private static final int CACHE_SIZE = 256;
+    
+    private static final int[] FRACTION_SCALE = {
+        0, 100_000_000, 10_000_000, 1_000_000, 100_000, 10_000, 1_000, 100, 10, 1
+    };
+    
+    private final long[] cachedKeys = new long[CACHE_SIZE];
+    private final int[] cachedNanos = new int[CACHE_SIZE];
+    private final LocalDateTime[] cachedValues = new LocalDateTime[CACHE_SIZE];
+    
+    /**
+     * Разбирает дату из байтов bytes[from, to).
+     *
+     * @throws DateTimeParseException если значение не является датой ISO-8601
+     */
+    public LocalDateTime parse(byte[] bytes, int from, int to) {
+        LocalDateTime value = parseFixedLayout(bytes, from, to);
+        if (value != null) {
+            return value;
+        }
+        return LocalDateTime.parse(new String(bytes, from, to - from, StandardCharsets.UTF_8), ISO_DATE_TIME_FORMATTER);
+    }
+    
+    /**
+     * Разбирает дату вида yyyy-MM-ddTHH:mm[:ss[.f]].
+     *
+     * @return дата или null, если значение имеет другой вид или неверно
+     */
+    LocalDateTime parseFixedLayout(byte[] b, int from, int to) {
+        int length = to - from;
+        if (length < 16 || length == 17 || length == 18 || length == 20 || length > 29
+            || b[from + 4] != '-' || b[from + 7] != '-' || b[from + 10] != 'T' || b[from + 13] != ':') {
+            return null;
+        }
+        int year = digits4(b, from);
+        int month = digits2(b, from + 5);
+        int day = digits2(b, from + 8);
+        int hour = digits2(b, from + 11);
+        int minute = digits2(b, from + 14);
+        int second = 0;
+        int nano = 0;
+        if (length > 16) {
+            if (b[from + 16] != ':') {
+                return null;
+            }
+            second = digits2(b, from + 17);
+            if (length > 19) {
+                if (b[from + 19] != '.') {
+                    return null;
+                }
+                nano = fraction(b, from + 20, to);
+            }
+        }
+        // Отрицательное значение означает, что в поле была не цифра
+        if ((year | month | day | hour | minute | second | nano) < 0) {
+            return null;
+        }
+        
+        long key = ((((long) year * 100 + month) * 100 + day) * 100 + hour) * 10_000 + minute * 100 + second;
+        int slot = (int) ((key ^ (key >>> 17) ^ nano) & (CACHE_SIZE - 1));
+        LocalDateTime cached = cachedValues[slot];
+        if (cached != null && cachedKeys[slot] == key && cachedNanos[slot] == nano) {
+            return cached;
+        }
+        
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+            || hour > 23 || minute > 59 || second > 59) {
+            return null;
+        }
+        LocalDateTime value = LocalDateTime.of(year, month, day, hour, minute, second, nano);
+        cachedKeys[slot] = key;
+        cachedNanos[slot] = nano;
+        cachedValues[slot] = value;
+        return value;
+    }
+    
+    private static int fraction(byte[] b, int from, int to) {
+        int count = to - from;
+        if (count < 1) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = b[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value * FRACTION_SCALE[count];
+    }
+    
+    private static int digits4(byte[] b, int i) {
+        int high = digits2(b, i);
+        int low = digits2(b, i + 2);
+        return (high | low) < 0 ? -1 : high * 100 + low;
+    }
+    
+    private static int digits2(byte[] b, int i) {
+        int tens = b[i] - '0';
+        int ones = b[i + 1] - '0';
+        if (tens < 0 || tens > 9 || ones < 0 || ones > 9) {
+            return -1;
+        }
+        return tens * 10 + ones;
+    }
+    
+    private static int daysInMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+}
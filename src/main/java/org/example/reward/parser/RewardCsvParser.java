@@ -0,0 +1,412 @@
+package org.example.reward.parser;
+
+import org.example.reward.dto.RejectedRecord;
+import org.example.reward.dto.RewardRecord;
+import org.example.reward.exception.InvalidFileFormatException;
+import org.example.reward.exception.InvalidRecordException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Потоковый (push) парсер CSV файла с наградами фиксированного формата из пяти колонок:
+ * employeeId, employeeFullName, rewardId, rewardName, receivedDate.
+ *
+ * Принимает байты файла произвольными порциями и выдает записи по мере того, как строки
+ * становятся полными. Поддерживает UTF-8, поля в кавычках (в том числе с переводами строк
+ * и экранированными кавычками) и CRLF, разорванный между порциями. Числовые поля и даты
+ * основного вида разбираются прямо из байтов без промежуточных строк ({@link IsoDateTimeParser}). Экземпляр хранит состояние и не потокобезопасен:
+ * на каждый файл создается новый парсер.
+ *
+ * В строгом режиме первая неверная запись прерывает разбор исключением. В нестрогом режиме
+ * (передан обработчик отклоненных строк) неверная запись передается обработчику, а разбор
+ * продолжается. Ошибки структуры файла (заголовок, незакрытая кавычка, слишком длинная запись)
+ * прерывают разбор в любом режиме.
+ */
+public final class RewardCsvParser {
+    
+    public static final int EXPECTED_COLUMNS = 5;
+    
+    private static final int INITIAL_ROW_CAPACITY = 256;
+    
+    private static final int REWARD_NAMES_DICTIONARY_SIZE = 256;
+    
+    /**
+     * Ограничение длины одной записи: защищает от неограниченного роста буфера,
+     * например при незакрытой кавычке в большом файле.
+     */
+    static final int MAX_ROW_BYTES = 1024 * 1024;
+    
+    /**
+     * Сколько границ полей запоминается для строки с лишними колонками (для текста отклоненной строки).
+     */
+    private static final int MAX_TRACKED_FIELDS = 64;
+    
+    private static final byte QUOTE = '"';
+    private static final byte COMMA = ',';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    
+    private byte[] row = new byte[INITIAL_ROW_CAPACITY];
+    private int rowLength;
+    
+    private int[] fieldStart = new int[EXPECTED_COLUMNS];
+    private int[] fieldEnd = new int[EXPECTED_COLUMNS];
+    private int fieldCount;
+    private int currentFieldStart;
+    
+    private boolean inQuotes;
+    private boolean quotePending;
+    
+    private boolean headerPending;
+    private long lineNumber;
+    private long rowStartLine;
+    
+    private final Consumer<RejectedRecord> rejectedRecords;
+    
+    private final IsoDateTimeParser dateTimeParser = new IsoDateTimeParser();
+    
+    /**
+     * Названия наград повторяются от строки к строке, поэтому не создаются заново для каждой записи.
+     */
+    private final StringDictionary rewardNames = new StringDictionary(REWARD_NAMES_DICTIONARY_SIZE);
+    
+    public RewardCsvParser() {
+        this(true, 1);
+    }
+    
+    /**
+     * @param hasHeader первая строка входных данных является заголовком
+     * @param firstLine номер первой строки входных данных в исходном файле
+     */
+    public RewardCsvParser(boolean hasHeader, long firstLine) {
+        this(hasHeader, firstLine, null);
+    }
+    
+    /**
+     * @param hasHeader первая строка входных данных является заголовком
+     * @param firstLine номер первой строки входных данных в исходном файле
+     * @param rejectedRecords обработчик неверных записей (нестрогий режим) или null (строгий режим)
+     */
+    public RewardCsvParser(boolean hasHeader, long firstLine, Consumer<RejectedRecord> rejectedRecords) {
+        this.headerPending = hasHeader;
+        this.lineNumber = firstLine;
+        this.rowStartLine = firstLine;
+        this.rejectedRecords = rejectedRecords;
+    }
+    
+    /**
+     * Разбирает очередную порцию байтов и добавляет полностью прочитанные записи в out.
+     * Незавершенная строка сохраняется до следующей порции.
+     */
+    public void feed(ByteBuffer chunk, List<RewardRecord> out) {
+        if (chunk.hasArray()) {
+            byte[] array = chunk.array();
+            int from = chunk.arrayOffset() + chunk.position();
+            int to = chunk.arrayOffset() + chunk.limit();
+            for (int i = from; i < to; i++) {
+                accept(array[i], out);
+            }
+        } else {
+            for (int i = chunk.position(); i < chunk.limit(); i++) {
+                accept(chunk.get(i), out);
+            }
+        }
+    }
+    
+    /**
+     * Завершает разбор: обрабатывает последнюю строку без перевода строки в конце.
+     */
+    public void finish(List<RewardRecord> out) {
+        if (inQuotes && !quotePending) {
+            throw new InvalidRecordException(
+                String.format("Строка %d: не закрыта кавычка в поле", rowStartLine));
+        }
+        inQuotes = false;
+        quotePending = false;
+        if (rowLength > 0 || fieldCount > 0) {
+            endField();
+            endRow(out);
+        }
+        if (headerPending) {
+            throw new InvalidFileFormatException("CSV файл пуст");
+        }
+    }
+    
+    /**
+     * Номер строки исходного файла, которая читается в данный момент.
+     */
+    public long lineNumber() {
+        return lineNumber;
+    }
+    
+    private void accept(byte b, List<RewardRecord> out) {
+        if (inQuotes) {
+            if (quotePending) {
+                quotePending = false;
+                if (b == QUOTE) {
+                    append(QUOTE); // экранированная кавычка ""
+                    return;
+                }
+                inQuotes = false; // закрывающая кавычка, текущий байт обрабатываем как обычно
+            } else {
+                if (b == QUOTE) {
+                    quotePending = true;
+                } else {
+                    if (b == LF) {
+                        lineNumber++;
+                    }
+                    append(b);
+                }
+                return;
+            }
+        }
+        
+        switch (b) {
+            case QUOTE -> {
+                if (isBlank(currentFieldStart, rowLength)) {
+                    rowLength = currentFieldStart; // пробелы перед открывающей кавычкой отбрасываем
+                    inQuotes = true;
+                } else {
+                    append(b);
+                }
+            }
+            case COMMA -> endField();
+            case LF -> {
+                endField();
+                try {
+                    endRow(out);
+                } finally {
+                    lineNumber++;
+                    rowStartLine = lineNumber;
+                }
+            }
+            case CR -> {
+                // CR из CRLF игнорируем, строка завершается на LF
+            }
+            default -> append(b);
+        }
+    }
+    
+    private void append(byte b) {
+        if (rowLength == row.length) {
+            if (row.length >= MAX_ROW_BYTES) {
+                throw new InvalidRecordException(String.format(
+                    "Строка %d: превышена максимальная длина записи (%d байт)", rowStartLine, MAX_ROW_BYTES));
+            }
+            row = Arrays.copyOf(row, Math.min(row.length * 2, MAX_ROW_BYTES));
+        }
+        row[rowLength++] = b;
+    }
+    
+    private void endField() {
+        if (fieldCount == fieldStart.length && fieldCount < MAX_TRACKED_FIELDS) {
+            fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+            fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+        }
+        if (fieldCount < fieldStart.length) {
+            fieldStart[fieldCount] = currentFieldStart;
+            fieldEnd[fieldCount] = rowLength;
+        }
+        fieldCount++;
+        currentFieldStart = rowLength;
+    }
+    
+    private void endRow(List<RewardRecord> out) {
+        try {
+            if (headerPending) {
+                headerPending = false;
+                checkHeader();
+            } else if (!isEmptyRow()) {
+                addRecord(out);
+            }
+        } finally {
+            rowLength = 0;
+            fieldCount = 0;
+            currentFieldStart = 0;
+        }
+    }
+    
+    private void addRecord(List<RewardRecord> out) {
+        if (rejectedRecords == null) {
+            out.add(toRecord());
+            return;
+        }
+        try {
+            out.add(toRecord());
+        } catch (InvalidRecordException e) {
+            rejectedRecords.accept(new RejectedRecord(rowStartLine, reason(e), rowContent()));
+        }
+    }
+    
+    private void checkHeader() {
+        if (fieldCount != EXPECTED_COLUMNS) {
+            throw new InvalidFileFormatException(
+                String.format("Неверный формат заголовка: ожидалось %d колонок, получено %d. " +
+                    "Проверьте, что файл использует запятую как разделитель и кодировку UTF-8.",
+                    EXPECTED_COLUMNS, fieldCount)
+            );
+        }
+    }
+    
+    private boolean isEmptyRow() {
+        return fieldCount == 1 && isBlank(fieldStart[0], fieldEnd[0]);
+    }
+    
+    /**
+     * Собирает запись из полей текущей строки.
+     */
+    private RewardRecord toRecord() {
+        if (fieldCount != EXPECTED_COLUMNS) {
+            throw invalid(String.format(
+                "Неверное количество колонок: ожидалось %d, получено %d", EXPECTED_COLUMNS, fieldCount));
+        }
+        
+        long employeeId = parseLong(0, "employeeId");
+        String employeeFullName = string(1);
+        long rewardId = parseLong(2, "rewardId");
+        String rewardName = internedString(3, rewardNames);
+        LocalDateTime receivedDate = parseDateTime(4);
+        
+        if (employeeId <= 0) {
+            throw invalid("employeeId должен быть положительным числом");
+        }
+        if (employeeFullName.isEmpty()) {
+            throw invalid("employeeFullName не может быть пустым");
+        }
+        if (rewardId <= 0) {
+            throw invalid("rewardId должен быть положительным числом");
+        }
+        if (rewardName.isEmpty()) {
+            throw invalid("rewardName не может быть пустым");
+        }
+        
+        return new RewardRecord(employeeId, employeeFullName, rewardId, rewardName, receivedDate);
+    }
+    
+    /**
+     * Разбирает целое число прямо из байтов поля, без создания строки.
+     */
+    private long parseLong(int field, String fieldName) {
+        int from = trimStart(field);
+        int to = trimEnd(field, from);
+        if (from == to) {
+            throw invalid(String.format("Поле %s не может быть пустым", fieldName));
+        }
+        
+        boolean negative = row[from] == '-';
+        int i = (negative || row[from] == '+') ? from + 1 : from;
+        if (i == to) {
+            throw invalidNumber(field, fieldName);
+        }
+        
+        long result = 0;
+        for (; i < to; i++) {
+            int digit = row[i] - '0';
+            if (digit < 0 || digit > 9 || result > (Long.MAX_VALUE - digit) / 10) {
+                throw invalidNumber(field, fieldName);
+            }
+            result = result * 10 + digit;
+        }
+        return negative ? -result : result;
+    }
+    
+    private LocalDateTime parseDateTime(int field) {
+        int from = trimStart(field);
+        int to = trimEnd(field, from);
+        if (from == to) {
+            throw invalid("Поле receivedDate не может быть пустым");
+        }
+        try {
+            return dateTimeParser.parse(row, from, to);
+        } catch (DateTimeParseException e) {
+            throw invalid(String.format("Неверный формат даты (ожидается ISO-8601): %s", e.getParsedString()), e);
+        }
+    }
+    
+    private String string(int field) {
+        int from = trimStart(field);
+        int to = trimEnd(field, from);
+        return new String(row, from, to - from, StandardCharsets.UTF_8);
+    }
+    
+    private String internedString(int field, StringDictionary dictionary) {
+        int from = trimStart(field);
+        int to = trimEnd(field, from);
+        return dictionary.get(row, from, to);
+    }
+    
+    private int trimStart(int field) {
+        int from = fieldStart[field];
+        int to = fieldEnd[field];
+        while (from < to && isWhitespace(row[from])) {
+            from++;
+        }
+        return from;
+    }
+    
+    private int trimEnd(int field, int from) {
+        int to = fieldEnd[field];
+        while (to > from && isWhitespace(row[to - 1])) {
+            to--;
+        }
+        return to;
+    }
+    
+    private boolean isBlank(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!isWhitespace(row[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t';
+    }
+    
+    /**
+     * Текст текущей строки в формате CSV (поля в кавычках при необходимости).
+     */
+    private String rowContent() {
+        StringBuilder content = new StringBuilder(rowLength + fieldCount + 8);
+        int fields = Math.min(fieldCount, fieldStart.length);
+        for (int field = 0; field < fields; field++) {
+            if (field > 0) {
+                content.append(',');
+            }
+            String value = new String(row, fieldStart[field], fieldEnd[field] - fieldStart[field], StandardCharsets.UTF_8);
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+                content.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                content.append(value);
+            }
+        }
+        return content.toString();
+    }
+    
+    private String reason(InvalidRecordException e) {
+        String prefix = "Строка " + rowStartLine + ": ";
+        String message = e.getMessage();
+        return message.startsWith(prefix) ? message.substring(prefix.length()) : message;
+    }
+    
+    private InvalidRecordException invalidNumber(int field, String fieldName) {
+        String value = new String(row, fieldStart[field], fieldEnd[field] - fieldStart[field], StandardCharsets.UTF_8);
+        return invalid(String.format("Неверный формат поля %s: %s", fieldName, value));
+    }
+    
+    private InvalidRecordException invalid(String message) {
+        return new InvalidRecordException(String.format("Строка %d: %s", rowStartLine, message));
+    }
+    
+    private InvalidRecordException invalid(String message, Throwable cause) {
+        return new InvalidRecordException(String.format("Строка %d: %s", rowStartLine, message), cause);
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.reward.parser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Ограниченный словарь строк для повторяющихся значений полей (например, названий наград).
+ *
+ * Словарь устроен как кэш прямого отображения: одинаковые байты поля возвращают один
+ * экземпляр строки, а новое значение вытесняет значение с тем же хешем. Размер словаря
+ * фиксирован, поэтому файл с большим количеством разных значений не увеличивает потребление
+ * памяти, а только снижает долю попаданий. Экземпляр не потокобезопасен.
+ */
+final class StringDictionary {
+    
+    /**
+     * Более длинные значения не кэшируются: они редко повторяются, а сравнение стоит дороже.
+     */
+    private static final int MAX_VALUE_BYTES = 256;
+    
+    private final byte[][] keys;
+    private final String[] values;
+    private final int mask;
+    
+    /**
+     * @param size количество слотов, степень двойки
+     */
+    StringDictionary(int size) {
+        if (Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Размер словаря должен быть степенью двойки: " + size);
+        }
+        this.keys = new byte[size][];
+        this.values = new String[size];
+        this.mask = size - 1;
+    }
+    
+    /**
+     * Возвращает строку из байтов bytes[from, to) в кодировке UTF-8.
+     */
+    String get(byte[] bytes, int from, int to) {
+        int length = to - from;
+        if (length > MAX_VALUE_BYTES) {
+            return new String(bytes, from, length, StandardCharsets.UTF_8);
+        }
+        
+        int hash = 1;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        
+        byte[] key = keys[slot];
+        if (key != null && Arrays.equals(key, 0, key.length, bytes, from, to)) {
+            return values[slot];
+        }
+        String value = new String(bytes, from, length, StandardCharsets.UTF_8);
+        keys[slot] = Arrays.copyOfRange(bytes, from, to);
+        values[slot] = value;
+        return value;
+    }
+}
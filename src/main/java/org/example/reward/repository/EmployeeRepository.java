@@ -1,13 +1,24 @@
 package org.example.reward.repository;
 
 import org.example.reward.entity.Employee;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 
 public interface EmployeeRepository extends R2dbcRepository<Employee, Long> {
 
     Mono<Boolean> existsById(Long employeeId);
+    
+    /**
+     * Возвращает те идентификаторы из переданных, для которых существует сотрудник.
+     * Проверка выполняется одним запросом на весь набор.
+     */
+    @Query("SELECT id FROM employees WHERE id = ANY(:ids)")
+    Flux<Long> findExistingIds(Long[] ids);
+    
+    @Query("SELECT id FROM employees")
+    Flux<Long> findAllIds();
 }
-
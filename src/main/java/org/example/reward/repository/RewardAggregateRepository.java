@@ -0,0 +1,65 @@
+package org.example.reward.repository;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.example.reward.dto.RewardAggregateView;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+
+
+/**
+ * Чтение помесячных счетчиков наград из reward_aggregates. Счетчики обновляются
+ * при сохранении наград в {@link RewardBatchRepository}, поэтому отчет по количеству наград
+ * не читает таблицу rewards.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RewardAggregateRepository {
+    
+    private static final String SELECT =
+        "SELECT a.employee_id, a.period, a.reward_id, t.name, a.reward_count " +
+        "FROM reward_aggregates a JOIN reward_types t ON t.id = a.reward_id " +
+        "WHERE a.period >= :periodFrom AND a.period < :periodTo ";
+    
+    private static final String ORDER_BY = "ORDER BY a.employee_id, a.period, a.reward_id";
+    
+    private final DatabaseClient databaseClient;
+    
+    /**
+     * Возвращает счетчики всех сотрудников за месяцы [periodFrom, periodTo).
+     *
+     * @param periodFrom первый день первого месяца
+     * @param periodTo первый день месяца, следующего за последним
+     */
+    public Flux<RewardAggregateView> findAll(LocalDate periodFrom, LocalDate periodTo) {
+        return databaseClient.sql(SELECT + ORDER_BY)
+            .bind("periodFrom", periodFrom)
+            .bind("periodTo", periodTo)
+            .map(RewardAggregateRepository::toView)
+            .all();
+    }
+    
+    /**
+     * Возвращает счетчики сотрудника за месяцы [periodFrom, periodTo).
+     */
+    public Flux<RewardAggregateView> findByEmployee(long employeeId, LocalDate periodFrom, LocalDate periodTo) {
+        return databaseClient.sql(SELECT + "AND a.employee_id = :employeeId " + ORDER_BY)
+            .bind("periodFrom", periodFrom)
+            .bind("periodTo", periodTo)
+            .bind("employeeId", employeeId)
+            .map(RewardAggregateRepository::toView)
+            .all();
+    }
+    
+    private static RewardAggregateView toView(Readable row) {
+        return new RewardAggregateView(
+            row.get(0, Long.class),
+            row.get(1, LocalDate.class),
+            row.get(2, Long.class),
+            row.get(3, String.class),
+            row.get(4, Long.class));
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.reward.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.reward.dto.RewardRecord;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Пакетная запись наград одним многострочным INSERT ... VALUES вместо отдельного
+ * запроса на каждую запись. Название награды не сохраняется: тип награды должен быть
+ * добавлен в справочник reward_types заранее.
+ *
+ * В режиме дедупликации запрос дополняется ON CONFLICT DO NOTHING: награды, совпадающие
+ * с уже сохраненными по уникальному индексу ux_rewards_natural_key, пропускаются.
+ *
+ * Тем же запросом (через CTE) обновляются помесячные счетчики reward_aggregates: в них
+ * учитываются только действительно вставленные строки, и счетчики не расходятся
+ * с таблицей rewards, так как изменяются в одной транзакции с ней.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RewardBatchRepository {
+    
+    private static final int COLUMNS = 3;
+    
+    /**
+     * PostgreSQL допускает не более 65535 параметров в одном запросе.
+     */
+    public static final int MAX_BATCH_SIZE = 65535 / COLUMNS;
+    
+    private static final String INSERT_PREFIX =
+        "WITH inserted AS (INSERT INTO rewards (employee_id, reward_id, received_date) VALUES ";
+    
+    private static final String ON_CONFLICT_DO_NOTHING = " ON CONFLICT DO NOTHING";
+    
+    /**
+     * Строки агрегатов блокируются в порядке первичного ключа, чтобы параллельные пачки
+     * с общими сотрудниками не блокировали друг друга взаимно.
+     */
+    private static final String UPDATE_AGGREGATES_SUFFIX =
+        " RETURNING employee_id, reward_id, received_date), " +
+        "aggregated AS (INSERT INTO reward_aggregates (employee_id, period, reward_id, reward_count) " +
+        "SELECT employee_id, CAST(date_trunc('month', received_date) AS DATE) AS period, reward_id, COUNT(*) " +
+        "FROM inserted GROUP BY employee_id, period, reward_id ORDER BY employee_id, period, reward_id " +
+        "ON CONFLICT (employee_id, period, reward_id) " +
+        "DO UPDATE SET reward_count = reward_aggregates.reward_count + EXCLUDED.reward_count) " +
+        "SELECT COUNT(*) FROM inserted";
+    
+    /**
+     * Текст запроса зависит только от количества строк, поэтому кэшируется по размеру пачки.
+     * Размер кэша ограничен: неполные пачки по таймауту могут иметь любой размер.
+     */
+    private static final int MAX_CACHED_STATEMENTS = 16;
+    
+    private final DatabaseClient databaseClient;
+    
+    private final Map<Integer, String> insertSqlCache = new ConcurrentHashMap<>();
+    
+    /**
+     * Сохраняет пачку наград и обновляет их агрегаты одним запросом.
+     *
+     * @param records записи для сохранения (не более {@link #MAX_BATCH_SIZE})
+     * @param skipDuplicates пропускать записи, уже сохраненные в БД, вместо ошибки
+     * @return Mono<Long> количество вставленных строк (без пропущенных дубликатов)
+     */
+    public Mono<Long> insertAll(List<RewardRecord> records, boolean skipDuplicates) {
+        if (records.isEmpty()) {
+            return Mono.just(0L);
+        }
+        if (records.size() > MAX_BATCH_SIZE) {
+            return Mono.error(new IllegalArgumentException(
+                String.format("Размер пачки %d превышает допустимый %d", records.size(), MAX_BATCH_SIZE)));
+        }
+        
+        String sql = insertSql(records.size(), skipDuplicates);
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql);
+        int index = 0;
+        for (RewardRecord record : records) {
+            spec = spec
+                .bind(index++, record.employeeId())
+                .bind(index++, record.rewardId())
+                .bind(index++, record.receivedDate());
+        }
+        return spec.map(row -> row.get(0, Long.class)).one();
+    }
+    
+    private String insertSql(int rows, boolean skipDuplicates) {
+        // Знак ключа различает запросы с ON CONFLICT и без него
+        int key = skipDuplicates ? rows : -rows;
+        String sql = insertSqlCache.get(key);
+        if (sql == null) {
+            sql = buildInsertSql(rows, skipDuplicates);
+            if (insertSqlCache.size() < MAX_CACHED_STATEMENTS) {
+                insertSqlCache.putIfAbsent(key, sql);
+            }
+        }
+        return sql;
+    }
+    
+    private static String buildInsertSql(int rows, boolean skipDuplicates) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * 20 + UPDATE_AGGREGATES_SUFFIX.length())
+            .append(INSERT_PREFIX);
+        int parameter = 1;
+        for (int row = 0; row < rows; row++) {
+            if (row > 0) {
+                sql.append(',');
+            }
+            sql.append("($").append(parameter++)
+                .append(", $").append(parameter++)
+                .append(", $").append(parameter++)
+                .append(')');
+        }
+        if (skipDuplicates) {
+            sql.append(ON_CONFLICT_DO_NOTHING);
+        }
+        return sql.append(UPDATE_AGGREGATES_SUFFIX).toString();
+    }
+}
@@ -1,10 +1,45 @@
 package org.example.reward.repository;
 
+import org.example.reward.dto.RewardView;
 import org.example.reward.entity.Reward;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
-import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 
+import java.time.LocalDateTime;
 
+
+/**
+ * Страницы наград читаются по ключу (received_date, id), а не через OFFSET: страница начинается
+ * сразу после курсора, поэтому стоимость запроса зависит от размера страницы, а не от ее номера.
+ * Индексы idx_rewards_received_date_id и idx_rewards_employee_received_date_id содержат все
+ * читаемые столбцы rewards, поэтому строки наград читаются из индекса (Index Only Scan).
+ */
 public interface RewardRepository extends R2dbcRepository<Reward, Long> {
+    
+    /**
+     * Возвращает награды, следующие за курсором (afterDate, afterId), в порядке (received_date, id).
+     *
+     * @param afterDate дата получения последней награды предыдущей страницы
+     * @param afterId ID последней награды предыдущей страницы
+     * @param dateTo граница периода (не включается)
+     * @param limit размер страницы
+     */
+    @Query("SELECT r.id, r.employee_id, r.reward_id, t.name AS reward_name, r.received_date " +
+        "FROM rewards r JOIN reward_types t ON t.id = r.reward_id " +
+        "WHERE (r.received_date, r.id) > (:afterDate, :afterId) AND r.received_date < :dateTo " +
+        "ORDER BY r.received_date, r.id LIMIT :limit")
+    Flux<RewardView> findPage(LocalDateTime afterDate, long afterId, LocalDateTime dateTo, int limit);
+    
+    /**
+     * То же, что {@link #findPage}, для наград одного сотрудника.
+     */
+    @Query("SELECT r.id, r.employee_id, r.reward_id, t.name AS reward_name, r.received_date " +
+        "FROM rewards r JOIN reward_types t ON t.id = r.reward_id " +
+        "WHERE r.employee_id = :employeeId " +
+        "AND (r.received_date, r.id) > (:afterDate, :afterId) AND r.received_date < :dateTo " +
+        "ORDER BY r.received_date, r.id LIMIT :limit")
+    Flux<RewardView> findEmployeePage(long employeeId, LocalDateTime afterDate, long afterId, LocalDateTime dateTo,
+                                      int limit);
 }
 
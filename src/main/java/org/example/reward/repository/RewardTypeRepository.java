@@ -0,0 +1,24 @@
+package org.example.reward.repository;
+
+import org.example.reward.entity.RewardType;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Mono;
+
+
+public interface RewardTypeRepository extends R2dbcRepository<RewardType, Long> {
+    
+    /**
+     * Добавляет в справочник типы наград, которых в нем еще нет, одним запросом на весь набор.
+     * Название уже существующего типа не меняется.
+     *
+     * @param ids ID типов
+     * @param names названия в том же порядке
+     * @return Mono<Integer> количество добавленных типов
+     */
+    @Modifying
+    @Query("INSERT INTO reward_types (id, name) SELECT * FROM UNNEST(CAST(:ids AS BIGINT[]), CAST(:names AS VARCHAR[])) " +
+        "ON CONFLICT (id) DO NOTHING")
+    Mono<Integer> insertMissing(Long[] ids, String[] names);
+}
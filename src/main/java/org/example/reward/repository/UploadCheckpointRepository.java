@@ -0,0 +1,34 @@
+package org.example.reward.repository;
+
+import org.example.reward.entity.UploadCheckpoint;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+
+public interface UploadCheckpointRepository extends R2dbcRepository<UploadCheckpoint, String> {
+    
+    /**
+     * Возвращает количество сохраненных записей файла, если контрольная точка обновлялась после notBefore.
+     */
+    @Query("SELECT committed_records FROM upload_checkpoints WHERE sha256 = :sha256 AND updated_at > :notBefore")
+    Mono<Long> findCommittedRecords(String sha256, LocalDateTime notBefore);
+    
+    /**
+     * Сохраняет контрольную точку файла. Ключ задается приложением, поэтому save() здесь не подходит.
+     * Контрольная точка только продвигается вперед: параллельная загрузка того же файла,
+     * начатая с более ранней точки, не откатывает ее назад.
+     */
+    @Modifying
+    @Query("""
+        INSERT INTO upload_checkpoints (sha256, committed_records, updated_at)
+        VALUES (:sha256, :committedRecords, :updatedAt)
+        ON CONFLICT (sha256) DO UPDATE SET
+            committed_records = GREATEST(upload_checkpoints.committed_records, EXCLUDED.committed_records),
+            updated_at = EXCLUDED.updated_at
+        """)
+    Mono<Integer> upsert(String sha256, long committedRecords, LocalDateTime updatedAt);
+}
@@ -0,0 +1,37 @@
+package org.example.reward.repository;
+
+import org.example.reward.entity.UploadFingerprint;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+
+public interface UploadFingerprintRepository extends R2dbcRepository<UploadFingerprint, String> {
+    
+    /**
+     * Сохраняет отпечаток файла; устаревший отпечаток того же содержимого перезаписывается.
+     * Ключ задается приложением, поэтому save() здесь не подходит: он выполнил бы UPDATE.
+     */
+    @Modifying
+    @Query("""
+        INSERT INTO upload_fingerprints (sha256, file_size, total_records, saved_records, skipped_records,
+                                         duplicate_records, batches, message, created_at)
+        VALUES (:sha256, :fileSize, :totalRecords, :savedRecords, :skippedRecords,
+                :duplicateRecords, :batches, :message, :createdAt)
+        ON CONFLICT (sha256) DO UPDATE SET
+            file_size = EXCLUDED.file_size,
+            total_records = EXCLUDED.total_records,
+            saved_records = EXCLUDED.saved_records,
+            skipped_records = EXCLUDED.skipped_records,
+            duplicate_records = EXCLUDED.duplicate_records,
+            batches = EXCLUDED.batches,
+            message = EXCLUDED.message,
+            created_at = EXCLUDED.created_at
+        """)
+    Mono<Integer> upsert(String sha256, Long fileSize, Integer totalRecords, Integer savedRecords,
+                         Integer skippedRecords, Integer duplicateRecords, Integer batches,
+                         String message, LocalDateTime createdAt);
+}
@@ -0,0 +1,31 @@
+package org.example.reward.repository;
+
+import org.example.reward.entity.UploadJob;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+
+public interface UploadJobRepository extends R2dbcRepository<UploadJob, Long> {
+    
+    /**
+     * Асинхронные задания, не завершенные к моменту остановки приложения.
+     * Задания каталога загрузки (без сохраненного файла) восстанавливает DropFolderService.
+     */
+    @Query("SELECT * FROM upload_jobs WHERE status IN ('QUEUED', 'RUNNING') AND spool_path IS NOT NULL ORDER BY id")
+    Flux<UploadJob> findUnfinished();
+    
+    /**
+     * Завершает с ошибкой задания каталога загрузки, прерванные остановкой приложения.
+     */
+    @Modifying
+    @Query("""
+        UPDATE upload_jobs SET status = 'FAILED', message = :message, updated_at = :updatedAt
+        WHERE status IN ('QUEUED', 'RUNNING') AND spool_path IS NULL
+        """)
+    Mono<Integer> failInterruptedDropFolderJobs(String message, LocalDateTime updatedAt);
+}
@@ -1,28 +1,63 @@
 package org.example.reward.service;
 
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvException;
+import lombok.RequiredArgsConstructor;
+import org.example.reward.binary.RewardBinaryFormat;
+import org.example.reward.binary.RewardBinaryParser;
+import org.example.reward.compression.Compression;
+import org.example.reward.config.RewardProperties;
+import org.example.reward.dto.RejectedRecord;
 import org.example.reward.dto.RewardRecord;
-import org.example.reward.exception.InvalidFileFormatException;
-import org.example.reward.exception.InvalidRecordException;
+import org.example.reward.metrics.RewardMetrics;
+import org.example.reward.parser.CsvChunkSplitter;
+import org.example.reward.parser.RewardCsvParser;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 
 @Service
+@RequiredArgsConstructor
 public class CsvParserService {
     
-    private static final DateTimeFormatter ISO_DATE_TIME_FORMATTER = DateTimeFormatter.ISO_DATE_TIME;
+    private static final int READ_BUFFER_SIZE = 8192;
     
-    private static final int EXPECTED_COLUMNS = 5;
+    private final RewardMetrics rewardMetrics;
+    private final RewardProperties rewardProperties;
+    
+    /**
+     * Проверяет, что файл имеет поддерживаемый формат: CSV (в том числе сжатый) или двоичный.
+     */
+    public static boolean isSupportedFile(String filename) {
+        return Compression.forFileName(filename) != null || RewardBinaryFormat.isBinaryFile(filename);
+    }
+    
+    /**
+     * Разбирает файл в формате, определяемом по имени: двоичный формат {@link RewardBinaryFormat}
+     * или CSV, который предварительно распаковывается, если он сжат.
+     * 
+     * @param filename имя файла
+     * @param content содержимое файла в виде потока буферов
+     * @param rejectedRecords обработчик отклоненных записей; null — строгий режим
+     * @return Flux<RewardRecord> поток записей о наградах
+     */
+    public Flux<RewardRecord> parseFile(String filename, Flux<DataBuffer> content, Consumer<RejectedRecord> rejectedRecords) {
+        if (RewardBinaryFormat.isBinaryFile(filename)) {
+            return parseBinary(content, rejectedRecords);
+        }
+        Compression compression = Compression.forFileName(filename);
+        return parseCsv(compression == null ? content : compression.decode(content), rejectedRecords);
+    }
     
     /**
      * Парсит CSV файл и возвращает поток записей о наградах.
@@ -33,115 +68,192 @@ public class CsvParserService {
      * @return Flux<RewardRecord> поток записей о наградах
      */
     public Flux<RewardRecord> parseCsv(InputStream inputStream) {
+        // Чтение блокирующее: при параллельном разборе запросы данных могут приходить из Schedulers.parallel()
+        return parseCsv(DataBufferUtils.readInputStream(
+                () -> inputStream, DefaultDataBufferFactory.sharedInstance, READ_BUFFER_SIZE)
+            .subscribeOn(Schedulers.boundedElastic()));
+    }
+    
+    /**
+     * Потоково парсит CSV файл: каждый буфер разбирается сразу после получения
+     * и освобождается, поэтому объем используемой памяти не зависит от размера файла.
+     * При app.rewards.parser.parallelism > 1 файл разбирается порциями параллельно. Входной буфер
+     * делится на порции целиком, поэтому в памяти одновременно находятся порции, разбираемые
+     * или ожидающие выдачи записей (около parallelism), порции из одного входного буфера
+     * (размер буфера / chunk-size; для отображенного в память участка файла это map-size / chunk-size)
+     * и еще один запрошенный заранее входной буфер.
+     * 
+     * @param content содержимое CSV файла в виде потока буферов
+     * @return Flux<RewardRecord> поток записей о наградах
+     */
+    public Flux<RewardRecord> parseCsv(Flux<DataBuffer> content) {
+        return parseCsv(content, null);
+    }
+    
+    /**
+     * Потоково парсит CSV файл в нестрогом режиме: неверные записи не прерывают разбор,
+     * а передаются обработчику.
+     * 
+     * @param content содержимое CSV файла в виде потока буферов
+     * @param rejectedRecords обработчик отклоненных строк; null — строгий режим
+     * @return Flux<RewardRecord> поток верных записей о наградах
+     */
+    public Flux<RewardRecord> parseCsv(Flux<DataBuffer> content, Consumer<RejectedRecord> rejectedRecords) {
+        Consumer<RejectedRecord> onRejected = countingRejects(rejectedRecords);
+        
+        int parallelism = rewardProperties.getParser().getParallelism();
+        return (parallelism > 1 ? parseParallel(content, onRejected, parallelism) : parseSequential(content, onRejected))
+            .doOnError(rewardMetrics::parseError);
+    }
+    
+    /**
+     * Потоково разбирает файл в двоичном формате. Разбор сводится к чтению чисел по смещениям,
+     * поэтому выполняется последовательно в потоке получения данных.
+     * 
+     * @param content содержимое файла в виде потока буферов
+     * @param rejectedRecords обработчик отклоненных записей; null — строгий режим
+     * @return Flux<RewardRecord> поток записей о наградах
+     */
+    public Flux<RewardRecord> parseBinary(Flux<DataBuffer> content, Consumer<RejectedRecord> rejectedRecords) {
+        Consumer<RejectedRecord> onRejected = countingRejects(rejectedRecords);
+        
         return Flux.defer(() -> {
-            CSVReader reader = null;
-            try {
-                reader = new CSVReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
-                List<String[]> allRecords = reader.readAll();
+                RewardBinaryParser parser = new RewardBinaryParser(onRejected);
                 
-                if (allRecords.isEmpty()) {
-                    return Flux.error(new InvalidFileFormatException("CSV файл пуст"));
-                }
-                
-                // Проверяем первую строку (заголовок)
-                if (allRecords.get(0).length != EXPECTED_COLUMNS) {
-                    return Flux.error(new InvalidFileFormatException(
-                        String.format("Неверный формат заголовка: ожидалось %d колонок, получено %d. " +
-                            "Проверьте, что файл использует запятую как разделитель и кодировку UTF-8.",
-                            EXPECTED_COLUMNS, allRecords.get(0).length)
-                    ));
-                }
-                
-                return Flux.fromIterable(allRecords)
-                    .skip(1) // Пропускаем заголовок
-                    .filter(record -> record.length > 0 && !(record.length == 1 && record[0].trim().isEmpty())) // Пропускаем пустые строки
-                    .flatMap(record -> {
-                        try {
-                            return Flux.just(parseRecord(record));
-                        } catch (InvalidRecordException e) {
-                            return Flux.error(e);
-                        } catch (Exception e) {
-                            return Flux.error(new InvalidRecordException("Ошибка при парсинге записи", e));
-                        }
-                    });
-            } catch (Exception e) {
-                return Flux.error(new InvalidFileFormatException("Не удалось прочитать CSV файл: " + e.getMessage(), e));
-            } finally {
-                if (reader != null) {
-                    try {
-                        reader.close();
-                    } catch (Exception e) {
-                        // Игнорируем ошибки при закрытии
-                    }
-                }
-            }
+                return content
+                    .concatMap(buffer -> parseBuffer(parser::feed, buffer))
+                    .concatWith(Mono.fromRunnable(parser::finish))
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+            })
+            .doOnError(rewardMetrics::parseError);
+    }
+    
+    private Flux<RewardRecord> parseSequential(Flux<DataBuffer> content, Consumer<RejectedRecord> onRejected) {
+        return Flux.defer(() -> {
+            RewardCsvParser parser = new RewardCsvParser(true, 1, onRejected);
+            
+            return content
+                .concatMap(buffer -> parseBuffer(parser::feed, buffer))
+                .concatWith(Flux.defer(() -> {
+                    List<RewardRecord> records = new ArrayList<>(1);
+                    parser.finish(records);
+                    rewardMetrics.rowsParsed(records.size());
+                    return Flux.fromIterable(records);
+                }))
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
         });
     }
     
     /**
-     * Парсит одну запись из CSV.
+     * Параллельный разбор: файл делится на порции из целых записей, порции разбираются
+     * одновременно на Schedulers.parallel(), а записи выдаются в порядке следования в файле.
+     * Отклоненные строки и ошибка разбора выдаются в том же порядке, что и при последовательном
+     * разборе: ошибка в порции передается только после записей всех предыдущих порций.
      */
-    private RewardRecord parseRecord(String[] record) {
-        if (record.length != EXPECTED_COLUMNS) {
-            throw new InvalidRecordException(
-                String.format("Неверное количество колонок: ожидалось %d, получено %d", EXPECTED_COLUMNS, record.length)
-            );
-        }
+    private Flux<RewardRecord> parseParallel(Flux<DataBuffer> content, Consumer<RejectedRecord> onRejected,
+                                             int parallelism) {
+        int chunkSize = (int) rewardProperties.getParser().getChunkSize().toBytes();
+        boolean lenient = onRejected != null;
         
-        try {
-            Long employeeId = parseLong(record[0], "employeeId");
-            String employeeFullName = record[1].trim();
-            Long rewardId = parseLong(record[2], "rewardId");
-            String rewardName = record[3].trim();
-            LocalDateTime receivedDate = parseDateTime(record[4]);
+        return Flux.defer(() -> {
+            CsvChunkSplitter splitter = new CsvChunkSplitter(chunkSize);
             
-            validateRecord(employeeId, employeeFullName, rewardId, rewardName);
+            Flux<CsvChunkSplitter.Chunk> chunks = content
+                // Следующий входной буфер запрашивается, только когда выданы порции предыдущего
+                .concatMapIterable(buffer -> splitBuffer(splitter, buffer), 1)
+                .concatWith(Flux.defer(() -> {
+                    List<CsvChunkSplitter.Chunk> last = new ArrayList<>(1);
+                    splitter.finish(last);
+                    return Flux.fromIterable(last);
+                }))
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
             
-            return new RewardRecord(employeeId, employeeFullName, rewardId, rewardName, receivedDate);
-        } catch (InvalidRecordException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new InvalidRecordException("Ошибка при парсинге записи: " + String.join(",", record), e);
-        }
+            return chunks
+                .map(chunk -> Mono.fromCallable(() -> parseChunk(chunk, lenient))
+                    .subscribeOn(Schedulers.parallel()))
+                // Ошибка чтения или деления файла передается после уже полученных порций
+                .onErrorResume(e -> Flux.just(Mono.just(new ParsedChunk(List.of(), List.of(), e))))
+                .flatMapSequential(Function.identity(), parallelism, 1)
+                .concatMap(parsed -> {
+                    if (onRejected != null) {
+                        parsed.rejects().forEach(onRejected);
+                    }
+                    rewardMetrics.rowsParsed(parsed.records().size());
+                    Flux<RewardRecord> records = Flux.fromIterable(parsed.records());
+                    return parsed.error() == null ? records : records.concatWith(Flux.error(parsed.error()));
+                });
+        });
     }
     
-    private Long parseLong(String value, String fieldName) {
-        if (value == null || value.trim().isEmpty()) {
-            throw new InvalidRecordException(String.format("Поле %s не может быть пустым", fieldName));
-        }
+    private ParsedChunk parseChunk(CsvChunkSplitter.Chunk chunk, boolean lenient) {
+        List<RewardRecord> records = new ArrayList<>();
+        List<RejectedRecord> rejects = lenient ? new ArrayList<>() : List.of();
+        RewardCsvParser parser = new RewardCsvParser(chunk.header(), chunk.firstLine(), lenient ? rejects::add : null);
         try {
-            return Long.parseLong(value.trim());
-        } catch (NumberFormatException e) {
-            throw new InvalidRecordException(String.format("Неверный формат поля %s: %s", fieldName, value), e);
+            parser.feed(chunk.content(), records);
+            parser.finish(records);
+            return new ParsedChunk(records, rejects, null);
+        } catch (RuntimeException e) {
+            // Записи до ошибочной строки выдаются, как при последовательном разборе
+            return new ParsedChunk(records, rejects, e);
         }
     }
     
-    private LocalDateTime parseDateTime(String value) {
-        if (value == null || value.trim().isEmpty()) {
-            throw new InvalidRecordException("Поле receivedDate не может быть пустым");
-        }
-        try {
-            return LocalDateTime.parse(value.trim(), ISO_DATE_TIME_FORMATTER);
-        } catch (DateTimeParseException e) {
-            throw new InvalidRecordException(
-                String.format("Неверный формат даты (ожидается ISO-8601): %s", value), e
-            );
+    private List<CsvChunkSplitter.Chunk> splitBuffer(CsvChunkSplitter splitter, DataBuffer buffer) {
+        List<CsvChunkSplitter.Chunk> chunks = new ArrayList<>(1);
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (iterator.hasNext()) {
+                splitter.feed(iterator.next(), chunks);
+            }
+        } finally {
+            DataBufferUtils.release(buffer);
         }
+        return chunks;
     }
     
-    private void validateRecord(Long employeeId, String employeeFullName, Long rewardId, String rewardName) {
-        if (employeeId == null || employeeId <= 0) {
-            throw new InvalidRecordException("employeeId должен быть положительным числом");
-        }
-        if (employeeFullName == null || employeeFullName.trim().isEmpty()) {
-            throw new InvalidRecordException("employeeFullName не может быть пустым");
-        }
-        if (rewardId == null || rewardId <= 0) {
-            throw new InvalidRecordException("rewardId должен быть положительным числом");
-        }
-        if (rewardName == null || rewardName.trim().isEmpty()) {
-            throw new InvalidRecordException("rewardName не может быть пустым");
+    /**
+     * Разбирает буфер. Ошибка разбора передается после записей, прочитанных из буфера до ошибочной строки.
+     */
+    private Flux<RewardRecord> parseBuffer(Feeder feeder, DataBuffer buffer) {
+        List<RewardRecord> records = new ArrayList<>();
+        RuntimeException error = null;
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (iterator.hasNext()) {
+                feeder.feed(iterator.next(), records);
+            }
+        } catch (RuntimeException e) {
+            error = e;
+        } finally {
+            DataBufferUtils.release(buffer);
         }
+        rewardMetrics.rowsParsed(records.size());
+        Flux<RewardRecord> parsed = Flux.fromIterable(records);
+        return error == null ? parsed : parsed.concatWith(Flux.error(error));
+    }
+    
+    /**
+     * Оборачивает обработчик отклоненных записей учетом их в метриках; null (строгий режим) не меняется.
+     */
+    private Consumer<RejectedRecord> countingRejects(Consumer<RejectedRecord> rejectedRecords) {
+        return rejectedRecords == null ? null : rejected -> {
+            rewardMetrics.recordRejected();
+            rejectedRecords.accept(rejected);
+        };
+    }
+    
+    /**
+     * Потоковый парсер CSV или двоичного формата: добавляет в out записи, полностью прочитанные
+     * из очередной порции байтов, и сохраняет незавершенную запись до следующей порции.
+     */
+    @FunctionalInterface
+    private interface Feeder {
+        
+        void feed(ByteBuffer chunk, List<RewardRecord> out);
+    }
+    
+    /**
+     * Результат разбора порции: записи, отклоненные строки и ошибка, прервавшая разбор.
+     */
+    private record ParsedChunk(List<RewardRecord> records, List<RejectedRecord> rejects, Throwable error) {
     }
 }
-
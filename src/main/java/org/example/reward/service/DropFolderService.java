@@ -0,0 +1,280 @@
+package org.example.reward.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.reward.config.RewardProperties;
+import org.example.reward.entity.UploadJob;
+import org.example.reward.entity.UploadJobStatus;
+import org.example.reward.repository.UploadJobRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Загрузка CSV файлов (в том числе .csv.gz и .csv.zst) и файлов в двоичном формате (.rwb),
+ * появляющихся в каталоге (app.rewards.drop-folder.dir).
+ *
+ * Каталог отслеживается через WatchService. Новый файл берется в обработку, когда его размер
+ * перестает меняться, и когда освобождается одно из max-concurrent мест обработки: до этого файл
+ * остается во входящем каталоге. Взятый файл переносится в processing, после обработки —
+ * в done или failed с префиксом ID задания; результат сохраняется в таблице upload_jobs
+ * и доступен через GET /api/rewards/jobs/{id}.
+ *
+ * При запуске обрабатываются файлы, появившиеся в каталоге во время остановки, а файлы,
+ * обработка которых была прервана, возвращаются из processing во входящий каталог.
+ * Повторная обработка безопасна: уже сохраненные награды учитываются как дубликаты.
+ */
+@Slf4j
+@Service
+public class DropFolderService {
+    
+    static final String PROCESSING_DIR = "processing";
+    static final String DONE_DIR = "done";
+    static final String FAILED_DIR = "failed";
+    
+    static final String INTERRUPTED_MESSAGE = "Обработка прервана остановкой приложения, файл будет обработан повторно";
+    
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    
+    /**
+     * Сколько файлов одновременно ожидают окончания записи; остальные ждут в очереди.
+     */
+    private static final int MAX_SETTLING_FILES = 64;
+    
+    private final CsvParserService csvParserService;
+    private final RewardService rewardService;
+    private final UploadJobRepository uploadJobRepository;
+    private final RewardProperties.DropFolder properties;
+    
+    private final Sinks.Many<Path> files = Sinks.many().unicast().onBackpressureBuffer();
+    
+    /**
+     * Файлы, ожидающие обработки: повторные события по тому же файлу не ставят его в очередь еще раз.
+     */
+    private final Set<Path> pending = ConcurrentHashMap.newKeySet();
+    
+    private Disposable worker;
+    private WatchService watchService;
+    
+    public DropFolderService(CsvParserService csvParserService, RewardService rewardService,
+                             UploadJobRepository uploadJobRepository, RewardProperties rewardProperties) {
+        this.csvParserService = csvParserService;
+        this.rewardService = rewardService;
+        this.uploadJobRepository = uploadJobRepository;
+        this.properties = rewardProperties.getDropFolder();
+    }
+    
+    /**
+     * Начинает отслеживание каталога, если оно включено.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Path dir = properties.getDir();
+        if (dir == null) {
+            throw new IllegalStateException("Не задан каталог app.rewards.drop-folder.dir");
+        }
+        for (String subdir : new String[] {PROCESSING_DIR, DONE_DIR, FAILED_DIR}) {
+            Files.createDirectories(dir.resolve(subdir));
+        }
+        
+        // Файл остается в pending до переноса в processing: события по нему до этого момента не ставят его повторно
+        worker = files.asFlux()
+            .flatMap(file -> awaitStable(file, -1)
+                .onErrorResume(e -> {
+                    log.warn("Не удалось проверить размер файла {}: {}", file, e.getMessage());
+                    return Mono.empty();
+                })
+                .switchIfEmpty(Mono.fromRunnable(() -> pending.remove(file))), MAX_SETTLING_FILES)
+            .flatMap(file -> process(file)
+                .onErrorResume(e -> {
+                    log.error("Не удалось обработать файл {}", file, e);
+                    return Mono.empty();
+                }), properties.getMaxConcurrent())
+            .subscribe();
+        
+        returnInterrupted(dir);
+        
+        // Каталог регистрируется до просмотра, чтобы не пропустить файлы, появившиеся между ними
+        watchService = dir.getFileSystem().newWatchService();
+        dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        scan(dir);
+        
+        Thread watcher = new Thread(() -> watch(dir), "reward-drop-folder");
+        watcher.setDaemon(true);
+        watcher.start();
+        
+        log.info("Отслеживается каталог загрузки {}, одновременно обрабатывается файлов: {}",
+            dir, properties.getMaxConcurrent());
+    }
+    
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+        if (worker != null) {
+            worker.dispose();
+        }
+    }
+    
+    /**
+     * Обрабатывает файл из входящего каталога: переносит в processing, загружает награды,
+     * сохраняет результат задания и переносит файл в done или failed.
+     */
+    Mono<Void> process(Path file) {
+        return Mono.fromCallable(() -> {
+                try {
+                    return claim(file);
+                } finally {
+                    pending.remove(file);
+                }
+            })
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(claimed -> {
+                LocalDateTime now = LocalDateTime.now();
+                UploadJob job = new UploadJob(null, file.getFileName().toString(), UploadJobStatus.RUNNING,
+                    null, 0, 0, 0, 0, null, now, now);
+                UploadProgress progress = new UploadProgress();
+                
+                return uploadJobRepository.save(job)
+                    .flatMap(saved -> {
+                        log.info("Файл {} взят в обработку, задание {}", file.getFileName(), saved.getId());
+                        return rewardService.processRewards(
+                                csvParserService.parseFile(claimed.getFileName().toString(),
+                                    DataBufferUtils.read(claimed, DefaultDataBufferFactory.sharedInstance, READ_BUFFER_SIZE),
+                                    null),
+                                progress)
+                            .flatMap(response -> {
+                                log.info("Файл {} обработан: {}", file.getFileName(), response.message());
+                                return complete(saved, claimed, UploadJobStatus.COMPLETED, progress, response.message());
+                            })
+                            .onErrorResume(e -> {
+                                log.error("Файл {} обработан с ошибкой: {}", file.getFileName(), e.getMessage());
+                                return complete(saved, claimed, UploadJobStatus.FAILED, progress, e.getMessage());
+                            });
+                    });
+            });
+    }
+    
+    private void watch(Path dir) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        scan(dir);
+                    } else {
+                        submit(dir.resolve((Path) event.context()));
+                    }
+                }
+                if (!key.reset()) {
+                    log.error("Каталог загрузки {} больше недоступен, отслеживание остановлено", dir);
+                    return;
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Отслеживание каталога загрузки {} остановлено", dir);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("Ошибка отслеживания каталога загрузки {}", dir, e);
+        }
+    }
+    
+    private void scan(Path dir) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            stream.forEach(this::submit);
+        }
+    }
+    
+    private void submit(Path file) {
+        if (CsvParserService.isSupportedFile(file.getFileName().toString()) && Files.isRegularFile(file) && pending.add(file)) {
+            synchronized (files) {
+                files.tryEmitNext(file);
+            }
+        }
+    }
+    
+    /**
+     * Ждет, пока размер файла перестанет меняться. Если файл удален, возвращает пустой результат.
+     */
+    private Mono<Path> awaitStable(Path file, long previousSize) {
+        return Mono.delay(properties.getSettleTime())
+            .then(Mono.fromCallable(() -> Files.size(file)))
+            .onErrorResume(NoSuchFileException.class, e -> Mono.empty())
+            .flatMap(size -> size == previousSize ? Mono.just(file) : awaitStable(file, size));
+    }
+    
+    /**
+     * Переносит файл в processing. Если файл уже взят другим обработчиком, возвращает null.
+     */
+    private Path claim(Path file) throws IOException {
+        Path claimed = properties.getDir().resolve(PROCESSING_DIR).resolve(file.getFileName());
+        try {
+            return Files.move(file, claimed, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+    
+    private Mono<Void> complete(UploadJob job, Path file, UploadJobStatus status, UploadProgress progress,
+                                String message) {
+        job.setStatus(status);
+        job.setTotalRecords(progress.totalRecords());
+        job.setSavedRecords(progress.savedRecords());
+        job.setSkippedRecords(progress.skippedRecords());
+        job.setDuplicateRecords(progress.duplicateRecords());
+        job.setMessage(message);
+        job.setUpdatedAt(LocalDateTime.now());
+        
+        String targetDir = status == UploadJobStatus.COMPLETED ? DONE_DIR : FAILED_DIR;
+        Path target = properties.getDir().resolve(targetDir).resolve(job.getId() + "-" + file.getFileName());
+        
+        return uploadJobRepository.save(job)
+            .then(Mono.fromCallable(() -> Files.move(file, target, StandardCopyOption.ATOMIC_MOVE))
+                .subscribeOn(Schedulers.boundedElastic()))
+            .then();
+    }
+    
+    /**
+     * Возвращает во входящий каталог файлы, обработка которых была прервана остановкой приложения.
+     * Задания прерванной обработки закрываются до возврата файлов: повторная обработка создает новое задание.
+     */
+    private void returnInterrupted(Path dir) throws IOException {
+        Integer closed = uploadJobRepository.failInterruptedDropFolderJobs(INTERRUPTED_MESSAGE, LocalDateTime.now())
+            .block();
+        if (closed != null && closed > 0) {
+            log.info("Закрыто заданий каталога загрузки, прерванных остановкой приложения: {}", closed);
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir.resolve(PROCESSING_DIR))) {
+            for (Path file : stream) {
+                log.info("Файл {} не был обработан до остановки приложения и будет обработан повторно", file.getFileName());
+                Files.move(file, dir.resolve(file.getFileName()), StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.reward.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.reward.config.RewardProperties;
+import org.example.reward.dto.RewardRecord;
+import org.example.reward.dto.RewardUploadResponse;
+import org.example.reward.exception.InvalidIngestPathException;
+import org.example.reward.metrics.RewardMetrics;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Загрузка наград из файла, уже лежащего на сервере (например, на общем томе), без передачи
+ * по HTTP. Файл читается через FileChannel участками, отображенными в память, и передается
+ * в тот же конвейер разбора и сохранения, что и загружаемые файлы. Отображение избавляет
+ * от чтения через буфер ядра; копирование в кучу зависит от режима разбора: при последовательном
+ * разборе несжатого файла (app.rewards.parser.parallelism = 1) парсер читает байты прямо
+ * из отображенной памяти, а при параллельном разборе (по умолчанию) байты копируются
+ * в порции {@link org.example.reward.parser.CsvChunkSplitter}, как и для загружаемых файлов.
+ *
+ * Разрешены только файлы внутри каталога app.rewards.ingest.base-dir.
+ */
+@Slf4j
+@Service
+public class LocalFileIngestService {
+    
+    private final CsvParserService csvParserService;
+    private final RewardService rewardService;
+    private final RewardMetrics rewardMetrics;
+    private final RewardProperties rewardProperties;
+    private final RewardProperties.Ingest properties;
+    
+    public LocalFileIngestService(CsvParserService csvParserService, RewardService rewardService,
+                                  RewardMetrics rewardMetrics, RewardProperties rewardProperties) {
+        this.csvParserService = csvParserService;
+        this.rewardService = rewardService;
+        this.rewardMetrics = rewardMetrics;
+        this.rewardProperties = rewardProperties;
+        this.properties = rewardProperties.getIngest();
+    }
+    
+    /**
+     * Загружает награды из файла на сервере.
+     *
+     * @param path путь к файлу относительно app.rewards.ingest.base-dir
+     * @param lenient нестрогий режим: строки с ошибками не прерывают загрузку
+     * @return Mono<RewardUploadResponse> результат обработки
+     */
+    public Mono<RewardUploadResponse> ingest(String path, boolean lenient) {
+        Mono<RewardUploadResponse> ingest = Mono.fromCallable(() -> resolve(path))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(file -> {
+                log.info("Загрузка наград из файла на сервере: {}, нестрогий режим: {}", file, lenient);
+                
+                UploadProgress progress = lenient
+                    ? new UploadProgress(rewardProperties.getRejects().getMaxStored())
+                    : new UploadProgress();
+                // Формат определяется по запрошенному имени: путь после раскрытия ссылок может отличаться
+                Flux<RewardRecord> records = csvParserService.parseFile(path, read(file),
+                    lenient ? progress::recordRejected : null);
+                
+                return records
+                    .switchOnFirst((first, rest) -> first.isOnError()
+                        ? Mono.<RewardUploadResponse>error(first.getThrowable())
+                        : rewardService.processRewards(rest, progress))
+                    .single();
+            });
+        
+        return rewardMetrics.trackUpload(ingest);
+    }
+    
+    /**
+     * Проверяет, что путь указывает на существующий файл внутри разрешенного каталога
+     * (в том числе после раскрытия символических ссылок).
+     */
+    Path resolve(String path) throws IOException {
+        if (properties.getBaseDir() == null) {
+            throw new InvalidIngestPathException("Загрузка файлов с сервера отключена: не задан app.rewards.ingest.base-dir");
+        }
+        if (path == null || path.isBlank()) {
+            throw new InvalidIngestPathException("Не указан путь к файлу");
+        }
+        
+        Path baseDir = properties.getBaseDir().toRealPath();
+        Path file = baseDir.resolve(path).normalize();
+        if (!file.startsWith(baseDir) || !Files.isRegularFile(file)) {
+            throw new InvalidIngestPathException("Файл не найден в каталоге загрузки: " + path);
+        }
+        
+        Path realFile = file.toRealPath();
+        if (!realFile.startsWith(baseDir)) {
+            throw new InvalidIngestPathException("Файл не найден в каталоге загрузки: " + path);
+        }
+        return realFile;
+    }
+    
+    /**
+     * Читает файл последовательными участками, отображенными в память. Отображение
+     * освобождается сборщиком мусора, когда на буфер больше нет ссылок.
+     */
+    private Flux<DataBuffer> read(Path file) {
+        long mapSize = properties.getMapSize().toBytes();
+        
+        return Flux.using(
+            () -> FileChannel.open(file, StandardOpenOption.READ),
+            channel -> Flux.<DataBuffer, Long>generate(() -> 0L, (position, sink) -> {
+                try {
+                    long size = channel.size();
+                    if (position >= size) {
+                        sink.complete();
+                        return position;
+                    }
+                    long length = Math.min(mapSize, size - position);
+                    sink.next(DefaultDataBufferFactory.sharedInstance.wrap(
+                        channel.map(FileChannel.MapMode.READ_ONLY, position, length)));
+                    rewardMetrics.bytesReceived(length);
+                    return position + length;
+                } catch (IOException e) {
+                    sink.error(e);
+                    return position;
+                }
+            }),
+            channel -> {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    log.warn("Не удалось закрыть файл {}: {}", file, e.getMessage());
+                }
+            })
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.reward.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.reward.cache.RewardQueryCache;
+import org.example.reward.config.RewardProperties;
+import org.example.reward.dto.RewardAggregateView;
+import org.example.reward.dto.RewardView;
+import org.example.reward.exception.InvalidQueryParameterException;
+import org.example.reward.repository.RewardAggregateRepository;
+import org.example.reward.repository.RewardRepository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+
+/**
+ * Постраничное чтение сохраненных наград по ключу (received_date, id).
+ *
+ * Страница задается периодом [from, to), курсором (afterDate, afterId) — датой получения и ID
+ * последней награды предыдущей страницы — и размером limit. Курсор, предшествующий началу
+ * периода, заменяется началом периода, поэтому условие на from в запросе не нужно.
+ *
+ * Страницы наград сотрудника читаются через {@link RewardQueryCache}.
+ * Количество наград по месяцам читается из счетчиков reward_aggregates, а не из rewards.
+ */
+@Service
+@RequiredArgsConstructor
+public class RewardQueryService {
+    
+    /**
+     * Границы периода, если from или to не заданы (в пределах диапазона TIMESTAMP PostgreSQL).
+     */
+    static final LocalDateTime UNBOUNDED_FROM = LocalDateTime.of(1, 1, 1, 0, 0);
+    static final LocalDateTime UNBOUNDED_TO = LocalDateTime.of(9999, 12, 31, 23, 59, 59, 999_999_000);
+    
+    private final RewardRepository rewardRepository;
+    private final RewardQueryCache rewardQueryCache;
+    private final RewardAggregateRepository rewardAggregateRepository;
+    private final RewardProperties rewardProperties;
+    
+    /**
+     * Возвращает страницу наград всех сотрудников.
+     *
+     * @param from начало периода (включается), может быть null
+     * @param to конец периода (не включается), может быть null
+     * @param afterDate дата получения последней награды предыдущей страницы, может быть null
+     * @param afterId ID последней награды предыдущей страницы, задается вместе с afterDate
+     * @param limit размер страницы, может быть null
+     * @return Flux<RewardView> награды в порядке (receivedDate, id)
+     */
+    public Flux<RewardView> findRewards(LocalDateTime from, LocalDateTime to, LocalDateTime afterDate, Long afterId,
+                                        Integer limit) {
+        return Flux.defer(() -> {
+            Page page = page(from, to, afterDate, afterId, limit);
+            return rewardRepository.findPage(page.afterDate(), page.afterId(), page.to(), page.limit());
+        });
+    }
+    
+    /**
+     * Возвращает страницу наград сотрудника. Параметры те же, что у {@link #findRewards}.
+     *
+     * @param employeeId ID сотрудника
+     */
+    public Flux<RewardView> findEmployeeRewards(long employeeId, LocalDateTime from, LocalDateTime to,
+                                                LocalDateTime afterDate, Long afterId, Integer limit) {
+        return Flux.defer(() -> {
+            Page page = page(from, to, afterDate, afterId, limit);
+            return rewardQueryCache.findEmployeePage(employeeId, page.afterDate(), page.afterId(), page.to(), page.limit());
+        });
+    }
+    
+    /**
+     * Возвращает количество наград по сотрудникам, месяцам и типам наград за месяцы [from, to).
+     *
+     * @param employeeId ID сотрудника или null для всех сотрудников
+     * @param from первый месяц (включается), может быть null
+     * @param to последний месяц (не включается), может быть null
+     * @return Flux<RewardAggregateView> счетчики в порядке (employeeId, period, rewardId)
+     */
+    public Flux<RewardAggregateView> findAggregates(Long employeeId, YearMonth from, YearMonth to) {
+        return Flux.defer(() -> {
+            LocalDate start = from != null ? from.atDay(1) : UNBOUNDED_FROM.toLocalDate();
+            LocalDate end = to != null ? to.atDay(1) : UNBOUNDED_TO.toLocalDate();
+            if (!start.isBefore(end)) {
+                throw new InvalidQueryParameterException("Параметр from должен быть раньше to");
+            }
+            return employeeId != null
+                ? rewardAggregateRepository.findByEmployee(employeeId, start, end)
+                : rewardAggregateRepository.findAll(start, end);
+        });
+    }
+    
+    private Page page(LocalDateTime from, LocalDateTime to, LocalDateTime afterDate, Long afterId, Integer limit) {
+        RewardProperties.Query properties = rewardProperties.getQuery();
+        int pageSize = limit != null ? limit : properties.getDefaultPageSize();
+        if (pageSize < 1 || pageSize > properties.getMaxPageSize()) {
+            throw new InvalidQueryParameterException(
+                String.format("Параметр limit должен быть от 1 до %d: %d", properties.getMaxPageSize(), pageSize));
+        }
+        if ((afterDate == null) != (afterId == null)) {
+            throw new InvalidQueryParameterException("Параметры afterDate и afterId задаются вместе");
+        }
+        
+        LocalDateTime start = from != null ? from : UNBOUNDED_FROM;
+        LocalDateTime end = to != null ? to : UNBOUNDED_TO;
+        if (!start.isBefore(end)) {
+            throw new InvalidQueryParameterException("Параметр from должен быть раньше to");
+        }
+        
+        // Начало периода как курсор: (from, 0) предшествует всем наградам с датой from
+        if (afterDate == null || afterDate.isBefore(start)) {
+            return new Page(start, 0, end, pageSize);
+        }
+        return new Page(afterDate, afterId, end, pageSize);
+    }
+    
+    private record Page(LocalDateTime afterDate, long afterId, LocalDateTime to, int limit) {
+    }
+}
@@ -1,17 +1,31 @@
 package org.example.reward.service;
 
+import io.r2dbc.spi.R2dbcException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.reward.cache.EmployeeIdCache;
+import org.example.reward.cache.RewardTypeCatalog;
+import org.example.reward.config.RewardProperties;
 import org.example.reward.dto.RewardRecord;
 import org.example.reward.dto.RewardUploadResponse;
-import org.example.reward.entity.Reward;
-import org.example.reward.repository.EmployeeRepository;
-import org.example.reward.repository.RewardRepository;
+import org.example.reward.metrics.RewardMetrics;
+import org.example.reward.repository.RewardBatchRepository;
+import org.example.reward.repository.UploadCheckpointRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 
 @Slf4j
@@ -19,61 +33,237 @@ import java.util.concurrent.atomic.AtomicInteger;
 @RequiredArgsConstructor
 public class RewardService {
     
-    private final EmployeeRepository employeeRepository;
-    private final RewardRepository rewardRepository;
+    /**
+     * SQLSTATE нарушения внешнего ключа в PostgreSQL.
+     */
+    private static final String FOREIGN_KEY_VIOLATION = "23503";
+    
+    private final EmployeeIdCache employeeIdCache;
+    private final RewardTypeCatalog rewardTypeCatalog;
+    private final RewardBatchRepository rewardBatchRepository;
+    private final RewardProperties rewardProperties;
+    private final RewardMetrics rewardMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UploadCheckpointRepository uploadCheckpointRepository;
+    private final TransactionalOperator transactionalOperator;
     
     /**
      * Обрабатывает записи о наградах и сохраняет только те, для которых сотрудник существует в БД.
+     * Записи обрабатываются пачками (по размеру или по истечении окна накопления): существование
+     * сотрудников проверяется одним запросом на пачку, награды сохраняются одним запросом на пачку.
+     * В режиме дедупликации награды, уже сохраненные ранее, не вставляются повторно
+     * и учитываются в ответе как дубликаты. После сохранения пачки с новыми наградами
+     * публикуется {@link RewardsSavedEvent}.
      * 
      * @param records поток записей о наградах
      * @return Mono<RewardUploadResponse> результат обработки
      */
     public Mono<RewardUploadResponse> processRewards(Flux<RewardRecord> records) {
-        AtomicInteger totalRecords = new AtomicInteger(0);
-        AtomicInteger savedRecords = new AtomicInteger(0);
-        AtomicInteger skippedRecords = new AtomicInteger(0);
+        return processRewards(records, new UploadProgress());
+    }
+    
+    /**
+     * Обрабатывает записи о наградах, обновляя переданные счетчики по ходу обработки.
+     * 
+     * @param records поток записей о наградах
+     * @param progress счетчики обработки, доступные для чтения до завершения
+     * @return Mono<RewardUploadResponse> результат обработки
+     */
+    public Mono<RewardUploadResponse> processRewards(Flux<RewardRecord> records, UploadProgress progress) {
+        RewardProperties.Batch batch = rewardProperties.getBatch();
+        int batchSize = Math.min(batch.getSize(), RewardBatchRepository.MAX_BATCH_SIZE);
         
-        return records
-            .doOnNext(record -> totalRecords.incrementAndGet())
-            .flatMap(record -> 
-                employeeRepository.existsById(record.employeeId())
-                    .flatMap(exists -> {
-                        if (exists) {
-                            return saveReward(record)
-                                .doOnSuccess(r -> savedRecords.incrementAndGet())
-                                .thenReturn(true);
-                        } else {
-                            log.warn("Сотрудник с ID {} не найден в БД. Награда пропущена.", record.employeeId());
-                            skippedRecords.incrementAndGet();
-                            return Mono.just(false);
-                        }
-                    })
-            )
-            .then(Mono.fromCallable(() -> {
-                Integer total = totalRecords.get();
-                Integer saved = savedRecords.get();
-                Integer skipped = skippedRecords.get();
-                
-                String message = String.format(
-                    "Обработано записей: %d, сохранено: %d, пропущено: %d",
-                    total, saved, skipped
-                );
+        Function<List<RewardRecord>, Mono<List<RewardRecord>>> checkBatch = rewards ->
+            filterExistingEmployees(rewards, progress)
+                .filter(accepted -> !accepted.isEmpty());
+        Function<List<RewardRecord>, Mono<Long>> saveAccepted = accepted -> saveBatch(accepted, progress)
+            .onErrorResume(RewardService::isForeignKeyViolation, e -> recheckEmployees(accepted, progress, e)
+                .filter(rechecked -> !rechecked.isEmpty())
+                .flatMap(rechecked -> saveBatch(rechecked, progress)));
+        
+        Flux<List<RewardRecord>> recordBatches = records
+            .doOnNext(record -> progress.recordReceived())
+            .bufferTimeout(batchSize, batch.getWindow(), true);
+        
+        // Число одновременно обрабатываемых пачек ограничено, чтобы одна загрузка
+        // не занимала все соединения пула R2DBC. В режиме ordered сотрудники проверяются
+        // параллельно, а пачки вставляются по одной в порядке следования в файле
+        int concurrency = rewardProperties.getConcurrency();
+        int prefetch = rewardProperties.getPrefetch();
+        Flux<Long> savedBatches = rewardProperties.isOrdered()
+            ? recordBatches.flatMapSequential(checkBatch, concurrency, prefetch).concatMap(saveAccepted, prefetch)
+            : recordBatches.flatMap(rewards -> checkBatch.apply(rewards).flatMap(saveAccepted), concurrency, prefetch);
+        
+        return savedBatches
+            .then(Mono.fromCallable(progress::toResponse));
+    }
+    
+    /**
+     * Обрабатывает записи файла с возможностью продолжения после сбоя.
+     *
+     * Записи делятся на порции по app.rewards.batch.size строго по количеству записей, поэтому
+     * границы порций одинаковы при каждой загрузке того же файла. Каждая порция сохраняется
+     * в отдельной транзакции вместе с контрольной точкой: количеством записей файла, сохраненных
+     * к этому моменту. Порции сохраняются по порядку (проверка сотрудников выполняется заранее,
+     * параллельно), поэтому все записи до контрольной точки сохранены. При повторной загрузке
+     * того же файла записи до контрольной точки пропускаются; после успешной обработки
+     * контрольная точка удаляется.
+     *
+     * @param records поток записей о наградах
+     * @param progress счетчики обработки, доступные для чтения до завершения
+     * @param checkpointKey ключ контрольной точки (SHA-256 содержимого файла); если null,
+     *                      записи обрабатываются без контрольных точек
+     * @return Mono<RewardUploadResponse> результат обработки оставшихся записей
+     */
+    public Mono<RewardUploadResponse> processRewards(Flux<RewardRecord> records, UploadProgress progress,
+                                                     String checkpointKey) {
+        RewardProperties.Checkpoint checkpoint = rewardProperties.getCheckpoint();
+        if (checkpointKey == null || !checkpoint.isEnabled()) {
+            return processRewards(records, progress);
+        }
+        
+        int chunkSize = Math.min(rewardProperties.getBatch().getSize(), RewardBatchRepository.MAX_BATCH_SIZE);
+        LocalDateTime notBefore = LocalDateTime.now().minus(checkpoint.getTtl());
+        
+        return uploadCheckpointRepository.findCommittedRecords(checkpointKey, notBefore)
+            .defaultIfEmpty(0L)
+            .flatMap(committed -> {
+                if (committed > 0) {
+                    log.info("Загрузка файла {} продолжается с контрольной точки: сохранено ранее записей {}",
+                        checkpointKey, committed);
+                    progress.resumedAfter(committed);
+                }
+                AtomicLong position = new AtomicLong(committed);
                 
-                return new RewardUploadResponse(total, saved, skipped, message);
-            }));
+                return records
+                    .skip(committed)
+                    .doOnNext(record -> progress.recordReceived())
+                    .buffer(chunkSize)
+                    .flatMapSequential(chunk -> filterExistingEmployees(chunk, progress)
+                            .map(accepted -> new Chunk(chunk.size(), accepted)),
+                        rewardProperties.getConcurrency(), rewardProperties.getPrefetch())
+                    .concatMap(chunk -> {
+                        long committedRecords = position.addAndGet(chunk.size());
+                        return commitChunk(chunk.accepted(), checkpointKey, committedRecords, progress)
+                            .onErrorResume(RewardService::isForeignKeyViolation, e ->
+                                recheckEmployees(chunk.accepted(), progress, e)
+                                    .flatMap(rechecked -> commitChunk(rechecked, checkpointKey, committedRecords, progress)));
+                    })
+                    .then(uploadCheckpointRepository.deleteById(checkpointKey))
+                    .then(Mono.fromCallable(progress::toResponse));
+            });
     }
     
-
-    private Mono<Reward> saveReward(RewardRecord record) {
-        Reward reward = new Reward();
-        reward.setEmployeeId(record.employeeId());
-        reward.setRewardId(record.rewardId());
-        reward.setRewardName(record.rewardName());
-        reward.setReceivedDate(record.receivedDate());
+    /**
+     * Сохраняет порцию и контрольную точку в одной транзакции. Типы наград добавляются
+     * в справочник до транзакции: иначе при ее откате справочник в памяти разошелся бы с БД.
+     */
+    private Mono<Long> commitChunk(List<RewardRecord> accepted, String checkpointKey, long committedRecords,
+                                   UploadProgress progress) {
+        Mono<Long> saved = accepted.isEmpty()
+            ? Mono.just(0L)
+            : rewardMetrics.timeInsertBatch(rewardBatchRepository.insertAll(accepted, !rewardProperties.isFailOnDuplicate()));
+        
+        return rewardTypeCatalog.registerTypes(accepted)
+            .then(transactionalOperator.transactional(saved
+                .flatMap(count -> uploadCheckpointRepository.upsert(checkpointKey, committedRecords, LocalDateTime.now())
+                    .thenReturn(count))))
+            .doOnNext(count -> {
+                if (!accepted.isEmpty()) {
+                    batchSaved(accepted, count, progress);
+                }
+            });
+    }
+    
+    private Mono<Long> saveBatch(List<RewardRecord> accepted, UploadProgress progress) {
+        return saveRewards(accepted)
+            .doOnNext(saved -> batchSaved(accepted, saved, progress));
+    }
+    
+    /**
+     * Перепроверяет сотрудников пачки в БД в обход кэша после нарушения внешнего ключа: сотрудник
+     * мог быть удален после загрузки кэша. Записи удаленных сотрудников учитываются как пропущенные.
+     * Если все сотрудники пачки существуют, ошибка вставки вызвана не ими и возвращается как есть.
+     */
+    private Mono<List<RewardRecord>> recheckEmployees(List<RewardRecord> accepted, UploadProgress progress,
+                                                      Throwable error) {
+        log.warn("Пачка наград ссылается на отсутствующие в БД записи, сотрудники проверяются повторно: {}",
+            error.getMessage());
+        return filterExistingEmployees(accepted, progress, employeeIdCache::recheckExistingIds)
+            .flatMap(rechecked -> rechecked.size() < accepted.size() ? Mono.just(rechecked) : Mono.error(error));
+    }
+    
+    private static boolean isForeignKeyViolation(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof R2dbcException r2dbcException
+                && FOREIGN_KEY_VIOLATION.equals(r2dbcException.getSqlState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void batchSaved(List<RewardRecord> accepted, long saved, UploadProgress progress) {
+        progress.batchSaved(accepted.size(), saved);
+        rewardMetrics.batchSaved(accepted.size(), saved);
+        if (saved > 0) {
+            publishSaved(accepted);
+        }
+    }
+    
+    /**
+     * Оставляет в пачке только записи существующих сотрудников, остальные учитывает как пропущенные.
+     */
+    private Mono<List<RewardRecord>> filterExistingEmployees(List<RewardRecord> rewards, UploadProgress progress) {
+        return filterExistingEmployees(rewards, progress, employeeIdCache::findExistingIds);
+    }
+    
+    private Mono<List<RewardRecord>> filterExistingEmployees(List<RewardRecord> rewards, UploadProgress progress,
+                                                             Function<Long[], Mono<Set<Long>>> existenceCheck) {
+        Long[] employeeIds = rewards.stream()
+            .map(RewardRecord::employeeId)
+            .distinct()
+            .toArray(Long[]::new);
         
-        return rewardRepository.save(reward)
-            .doOnSuccess(r -> log.debug("Награда сохранена: employeeId={}, rewardId={}", 
-                r.getEmployeeId(), r.getRewardId()));
+        return rewardMetrics.timeExistenceCheck(existenceCheck.apply(employeeIds))
+            .map(existingIds -> {
+                List<RewardRecord> accepted = new ArrayList<>(rewards.size());
+                Map<Long, Integer> missing = new HashMap<>();
+                for (RewardRecord record : rewards) {
+                    if (existingIds.contains(record.employeeId())) {
+                        accepted.add(record);
+                    } else {
+                        missing.merge(record.employeeId(), 1, Integer::sum);
+                    }
+                }
+                missing.forEach((employeeId, count) -> 
+                    log.warn("Сотрудник с ID {} не найден в БД. Пропущено наград: {}", employeeId, count));
+                progress.recordsSkipped(rewards.size() - accepted.size());
+                rewardMetrics.recordsSkipped(rewards.size() - accepted.size());
+                return accepted;
+            });
+    }
+    
+    private void publishSaved(List<RewardRecord> rewards) {
+        Set<Long> employeeIds = new HashSet<>();
+        for (RewardRecord record : rewards) {
+            employeeIds.add(record.employeeId());
+        }
+        eventPublisher.publishEvent(new RewardsSavedEvent(employeeIds));
+    }
+    
+    /**
+     * Сохраняет пачку наград, предварительно добавив новые типы наград в справочник.
+     */
+    private Mono<Long> saveRewards(List<RewardRecord> rewards) {
+        return rewardTypeCatalog.registerTypes(rewards)
+            .then(rewardMetrics.timeInsertBatch(rewardBatchRepository.insertAll(rewards, !rewardProperties.isFailOnDuplicate())))
+            .doOnNext(saved -> log.debug("Сохранена пачка наград: {} из {}", saved, rewards.size()));
+    }
+    
+    /**
+     * Порция записей файла: количество записей и записи существующих сотрудников.
+     */
+    private record Chunk(int size, List<RewardRecord> accepted) {
     }
 }
-
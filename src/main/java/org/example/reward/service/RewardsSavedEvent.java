@@ -0,0 +1,11 @@
+package org.example.reward.service;
+
+import java.util.Set;
+
+/**
+ * Публикуется после сохранения пачки наград, в которой вставлена хотя бы одна награда.
+ *
+ * @param employeeIds сотрудники, награды которых были в пачке
+ */
+public record RewardsSavedEvent(Set<Long> employeeIds) {
+}
@@ -0,0 +1,165 @@
+package org.example.reward.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.reward.config.RewardProperties;
+import org.example.reward.dto.RewardUploadResponse;
+import org.example.reward.repository.UploadFingerprintRepository;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Отсекает повторные загрузки побайтно одинаковых файлов.
+ *
+ * Содержимое файла по мере поступления хешируется (SHA-256) и сохраняется во временный файл.
+ * Если файл с таким отпечатком уже был успешно обработан (в пределах TTL), сразу возвращается
+ * сохраненный результат без разбора и проверки записей; иначе файл обрабатывается
+ * из временной копии, а результат запоминается в таблице upload_fingerprints.
+ * Отпечаток передается в обработку как ключ контрольной точки: прерванная обработка
+ * того же файла при повторной загрузке продолжается с контрольной точки.
+ */
+@Slf4j
+@Service
+public class UploadFingerprintService {
+    
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    
+    private static final String ALREADY_PROCESSED_MESSAGE = "Файл уже был обработан ранее. ";
+    
+    private final UploadFingerprintRepository uploadFingerprintRepository;
+    private final RewardProperties.Fingerprint properties;
+    private final Path spoolDir;
+    
+    public UploadFingerprintService(UploadFingerprintRepository uploadFingerprintRepository,
+                                    RewardProperties rewardProperties) {
+        this.uploadFingerprintRepository = uploadFingerprintRepository;
+        this.properties = rewardProperties.getFingerprint();
+        this.spoolDir = rewardProperties.getJobs().getSpoolDir();
+    }
+    
+    /**
+     * Обрабатывает содержимое файла, если такой же файл не обрабатывался ранее.
+     *
+     * @param content содержимое загружаемого файла
+     * @param processing обработка содержимого (разбор и сохранение записей); второй аргумент —
+     *                   отпечаток содержимого или null, если отпечатки отключены
+     * @return Mono<RewardUploadResponse> результат обработки или сохраненный результат для повторного файла
+     */
+    public Mono<RewardUploadResponse> processOnce(Flux<DataBuffer> content,
+                                                  BiFunction<Flux<DataBuffer>, String, Mono<RewardUploadResponse>> processing) {
+        if (!properties.isEnabled()) {
+            return processing.apply(content, null);
+        }
+        
+        return Mono.usingWhen(
+            createSpoolFile(),
+            spoolFile -> spool(content, spoolFile)
+                .flatMap(fingerprint -> findProcessed(fingerprint)
+                    .switchIfEmpty(Mono.defer(() -> processing.apply(read(spoolFile), fingerprint.sha256())
+                        .flatMap(response -> remember(fingerprint, response).thenReturn(response))))),
+            this::deleteSpoolFile);
+    }
+    
+    /**
+     * Сохраняет содержимое во временный файл, попутно вычисляя его отпечаток.
+     */
+    private Mono<FileFingerprint> spool(Flux<DataBuffer> content, Path spoolFile) {
+        return Mono.defer(() -> {
+            MessageDigest digest = sha256();
+            AtomicLong size = new AtomicLong();
+            
+            Flux<DataBuffer> hashedContent = content.doOnNext(buffer -> {
+                size.addAndGet(buffer.readableByteCount());
+                try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                    while (iterator.hasNext()) {
+                        digest.update(iterator.next());
+                    }
+                }
+            });
+            
+            return DataBufferUtils.write(hashedContent, spoolFile)
+                .then(Mono.fromCallable(() -> new FileFingerprint(HexFormat.of().formatHex(digest.digest()), size.get())));
+        });
+    }
+    
+    private Mono<RewardUploadResponse> findProcessed(FileFingerprint fingerprint) {
+        LocalDateTime notBefore = LocalDateTime.now().minus(properties.getTtl());
+        
+        return uploadFingerprintRepository.findById(fingerprint.sha256())
+            .filter(processed -> processed.getCreatedAt().isAfter(notBefore))
+            .map(processed -> {
+                log.info("Файл {} ({} байт) уже обработан {}, возвращается сохраненный результат",
+                    fingerprint.sha256(), fingerprint.size(), processed.getCreatedAt());
+                return new RewardUploadResponse(processed.getTotalRecords(), processed.getSavedRecords(),
+                    processed.getSkippedRecords(), processed.getDuplicateRecords(), 0, processed.getBatches(),
+                    ALREADY_PROCESSED_MESSAGE + processed.getMessage(), List.of());
+            });
+    }
+    
+    /**
+     * Запоминает результат обработки. Ошибка сохранения отпечатка не влияет на результат загрузки.
+     * Результат с отклоненными строками (нестрогий режим) не запоминается: в строгом режиме
+     * тот же файл должен завершиться ошибкой.
+     */
+    private Mono<Integer> remember(FileFingerprint fingerprint, RewardUploadResponse response) {
+        if (response.rejectedRecords() > 0) {
+            return Mono.empty();
+        }
+        return uploadFingerprintRepository.upsert(fingerprint.sha256(), fingerprint.size(),
+                response.totalRecords(), response.savedRecords(), response.skippedRecords(),
+                response.duplicateRecords(), response.batches(), response.message(), LocalDateTime.now())
+            .onErrorResume(e -> {
+                log.warn("Не удалось сохранить отпечаток файла {}: {}", fingerprint.sha256(), e.getMessage());
+                return Mono.empty();
+            });
+    }
+    
+    private Flux<DataBuffer> read(Path spoolFile) {
+        return DataBufferUtils.read(spoolFile, DefaultDataBufferFactory.sharedInstance, READ_BUFFER_SIZE);
+    }
+    
+    private Mono<Path> createSpoolFile() {
+        return Mono.fromCallable(() -> {
+                Files.createDirectories(spoolDir);
+                return Files.createTempFile(spoolDir, "fingerprint-", ".csv");
+            })
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+    
+    private Mono<Void> deleteSpoolFile(Path spoolFile) {
+        return Mono.<Void>fromRunnable(() -> {
+                try {
+                    Files.deleteIfExists(spoolFile);
+                } catch (IOException e) {
+                    log.warn("Не удалось удалить временный файл {}: {}", spoolFile, e.getMessage());
+                }
+            })
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Алгоритм SHA-256 недоступен", e);
+        }
+    }
+    
+    private record FileFingerprint(String sha256, long size) {
+    }
+}
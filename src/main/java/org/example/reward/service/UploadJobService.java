@@ -0,0 +1,223 @@
+package org.example.reward.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.reward.config.RewardProperties;
+import org.example.reward.dto.RewardUploadResponse;
+import org.example.reward.dto.UploadJobResponse;
+import org.example.reward.entity.UploadJob;
+import org.example.reward.entity.UploadJobStatus;
+import org.example.reward.exception.UploadJobNotFoundException;
+import org.example.reward.repository.UploadJobRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Асинхронные задания загрузки: файл сохраняется на диск, клиент сразу получает ID задания,
+ * а обработка выполняется в фоне на выделенном ограниченном планировщике.
+ * Состояние заданий хранится в таблице upload_jobs, поэтому переживает перезапуск приложения.
+ */
+@Slf4j
+@Service
+public class UploadJobService {
+    
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    
+    private final CsvParserService csvParserService;
+    private final RewardService rewardService;
+    private final UploadJobRepository uploadJobRepository;
+    private final RewardProperties.Jobs properties;
+    
+    private final Scheduler jobScheduler;
+    
+    private final Sinks.Many<UploadJob> queue = Sinks.many().unicast().onBackpressureBuffer();
+    
+    private final Disposable worker;
+    
+    /**
+     * Счетчики выполняемых на этом экземпляре заданий, для отдачи прогресса без ожидания записи в БД.
+     */
+    private final Map<Long, UploadProgress> runningJobs = new ConcurrentHashMap<>();
+    
+    public UploadJobService(CsvParserService csvParserService, RewardService rewardService,
+                            UploadJobRepository uploadJobRepository, RewardProperties rewardProperties) {
+        this.csvParserService = csvParserService;
+        this.rewardService = rewardService;
+        this.uploadJobRepository = uploadJobRepository;
+        this.properties = rewardProperties.getJobs();
+        
+        int maxConcurrent = properties.getMaxConcurrent();
+        this.jobScheduler = Schedulers.newBoundedElastic(maxConcurrent, Integer.MAX_VALUE, "reward-upload-jobs");
+        this.worker = queue.asFlux()
+            .flatMap(job -> Mono.defer(() -> runJob(job))
+                .subscribeOn(jobScheduler)
+                .onErrorResume(e -> {
+                    log.error("Не удалось сохранить состояние задания загрузки {}", job.getId(), e);
+                    return Mono.empty();
+                }), maxConcurrent)
+            .subscribe();
+    }
+    
+    /**
+     * Сохраняет файл на диск, регистрирует задание и ставит его в очередь обработки.
+     *
+     * @param file загружаемый CSV файл
+     * @return Mono<UploadJobResponse> зарегистрированное задание
+     */
+    public Mono<UploadJobResponse> submit(FilePart file) {
+        return Mono.fromCallable(() -> {
+                Files.createDirectories(properties.getSpoolDir());
+                return Files.createTempFile(properties.getSpoolDir(), "upload-", ".csv");
+            })
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(spoolFile -> file.transferTo(spoolFile)
+                .then(Mono.defer(() -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    UploadJob job = new UploadJob(null, file.filename(), UploadJobStatus.QUEUED,
+                        spoolFile.toString(), 0, 0, 0, 0, null, now, now);
+                    return uploadJobRepository.save(job);
+                }))
+                .onErrorResume(e -> {
+                    deleteSpoolFile(spoolFile.toString());
+                    return Mono.error(e);
+                }))
+            .doOnNext(job -> {
+                log.info("Зарегистрировано задание загрузки {} для файла {}", job.getId(), job.getFileName());
+                enqueue(job);
+            })
+            .map(job -> toResponse(job, null));
+    }
+    
+    /**
+     * Возвращает состояние задания; для выполняемых заданий счетчики берутся из памяти.
+     *
+     * @param jobId ID задания
+     * @return Mono<UploadJobResponse> состояние задания
+     */
+    public Mono<UploadJobResponse> getJob(Long jobId) {
+        return uploadJobRepository.findById(jobId)
+            .switchIfEmpty(Mono.error(() -> new UploadJobNotFoundException(jobId)))
+            .map(job -> toResponse(job, runningJobs.get(jobId)));
+    }
+    
+    /**
+     * Возобновляет асинхронные задания, прерванные остановкой приложения. Если сохраненный файл
+     * задания утерян, задание помечается как завершенное с ошибкой.
+     * Задания каталога загрузки сохраненного файла не имеют и восстанавливаются в DropFolderService.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        uploadJobRepository.findUnfinished()
+            .concatMap(job -> {
+                if (job.getSpoolPath() != null && Files.exists(Path.of(job.getSpoolPath()))) {
+                    log.info("Возобновление задания загрузки {} после перезапуска", job.getId());
+                    return saveState(job, UploadJobStatus.QUEUED, new UploadProgress(), null)
+                        .doOnNext(this::enqueue);
+                }
+                return saveState(job, UploadJobStatus.FAILED, new UploadProgress(),
+                    "Файл задания утерян при перезапуске приложения");
+            })
+            .onErrorResume(e -> {
+                log.warn("Не удалось возобновить незавершенные задания: {}", e.getMessage());
+                return Flux.empty();
+            })
+            .blockLast();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        worker.dispose();
+        jobScheduler.dispose();
+    }
+    
+    private void enqueue(UploadJob job) {
+        synchronized (queue) {
+            queue.tryEmitNext(job);
+        }
+    }
+    
+    private Mono<Void> runJob(UploadJob job) {
+        UploadProgress progress = new UploadProgress();
+        runningJobs.put(job.getId(), progress);
+        
+        Mono<RewardUploadResponse> processing = rewardService.processRewards(
+                csvParserService.parseFile(job.getFileName(),
+                    DataBufferUtils.read(Path.of(job.getSpoolPath()), DefaultDataBufferFactory.sharedInstance, READ_BUFFER_SIZE)
+                        .publishOn(jobScheduler),
+                    null),
+                progress)
+            .cache();
+        
+        // Прогресс периодически сохраняется в БД; последнее сохранение завершается до финального статуса
+        Mono<Void> progressUpdates = Flux.interval(properties.getProgressInterval())
+            .onBackpressureDrop()
+            .takeUntilOther(processing.onErrorResume(e -> Mono.empty()))
+            .concatMap(tick -> saveState(job, UploadJobStatus.RUNNING, progress, null))
+            .then();
+        
+        return saveState(job, UploadJobStatus.RUNNING, progress, null)
+            .then(progressUpdates)
+            .then(processing)
+            .flatMap(response -> {
+                log.info("Задание загрузки {} завершено: {}", job.getId(), response.message());
+                return saveState(job, UploadJobStatus.COMPLETED, progress, response.message());
+            })
+            .onErrorResume(e -> {
+                log.error("Задание загрузки {} завершилось с ошибкой: {}", job.getId(), e.getMessage());
+                return saveState(job, UploadJobStatus.FAILED, progress, e.getMessage());
+            })
+            .doFinally(signal -> {
+                runningJobs.remove(job.getId());
+                deleteSpoolFile(job.getSpoolPath());
+            })
+            .then();
+    }
+    
+    private Mono<UploadJob> saveState(UploadJob job, UploadJobStatus status, UploadProgress progress, String message) {
+        job.setStatus(status);
+        job.setTotalRecords(progress.totalRecords());
+        job.setSavedRecords(progress.savedRecords());
+        job.setSkippedRecords(progress.skippedRecords());
+        job.setDuplicateRecords(progress.duplicateRecords());
+        job.setMessage(message);
+        job.setUpdatedAt(LocalDateTime.now());
+        return uploadJobRepository.save(job);
+    }
+    
+    private void deleteSpoolFile(String spoolPath) {
+        try {
+            Files.deleteIfExists(Path.of(spoolPath));
+        } catch (IOException e) {
+            log.warn("Не удалось удалить файл задания {}: {}", spoolPath, e.getMessage());
+        }
+    }
+    
+    private UploadJobResponse toResponse(UploadJob job, UploadProgress liveProgress) {
+        if (liveProgress != null && job.getStatus() == UploadJobStatus.RUNNING) {
+            return new UploadJobResponse(job.getId(), job.getFileName(), job.getStatus(),
+                liveProgress.totalRecords(), liveProgress.savedRecords(), liveProgress.skippedRecords(),
+                liveProgress.duplicateRecords(),
+                job.getMessage(), job.getCreatedAt(), job.getUpdatedAt());
+        }
+        return new UploadJobResponse(job.getId(), job.getFileName(), job.getStatus(),
+            job.getTotalRecords(), job.getSavedRecords(), job.getSkippedRecords(), job.getDuplicateRecords(),
+            job.getMessage(), job.getCreatedAt(), job.getUpdatedAt());
+    }
+}
@@ -0,0 +1,133 @@
+package org.example.reward.service;
+
+import org.example.reward.dto.RejectedRecord;
+import org.example.reward.dto.RewardUploadResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Счетчики обработки одной загрузки. Обновляются по ходу обработки и могут читаться
+ * из других потоков (например, для отображения прогресса задания).
+ */
+public class UploadProgress {
+    
+    private final AtomicInteger totalRecords = new AtomicInteger(0);
+    private final AtomicInteger savedRecords = new AtomicInteger(0);
+    private final AtomicInteger skippedRecords = new AtomicInteger(0);
+    private final AtomicInteger duplicateRecords = new AtomicInteger(0);
+    private final AtomicInteger batches = new AtomicInteger(0);
+    private final AtomicInteger rejectedRecords = new AtomicInteger(0);
+    
+    /**
+     * Записи файла, сохраненные предыдущей прерванной загрузкой. В ответе входят только в общее
+     * количество записей: как они распределились по сохраненным, пропущенным и дубликатам, неизвестно.
+     */
+    private volatile long resumedAfter;
+    
+    /**
+     * Первые отклоненные строки; остальные только учитываются в счетчике.
+     */
+    private final List<RejectedRecord> rejects = new ArrayList<>();
+    private final int maxStoredRejects;
+    
+    public UploadProgress() {
+        this(0);
+    }
+    
+    /**
+     * @param maxStoredRejects сколько отклоненных строк сохранять для ответа
+     */
+    public UploadProgress(int maxStoredRejects) {
+        this.maxStoredRejects = maxStoredRejects;
+    }
+    
+    public void recordReceived() {
+        totalRecords.incrementAndGet();
+    }
+    
+    public void recordsSkipped(int count) {
+        skippedRecords.addAndGet(count);
+    }
+    
+    /**
+     * @param submitted количество записей, отправленных на вставку
+     * @param saved количество фактически вставленных строк; остальные записи уже были в БД
+     */
+    public void batchSaved(int submitted, long saved) {
+        savedRecords.addAndGet((int) saved);
+        duplicateRecords.addAndGet(submitted - (int) saved);
+        batches.incrementAndGet();
+    }
+    
+    /**
+     * @param committed количество первых записей файла, пропущенных по контрольной точке
+     */
+    public void resumedAfter(long committed) {
+        resumedAfter = committed;
+    }
+    
+    public void recordRejected(RejectedRecord rejected) {
+        if (rejectedRecords.incrementAndGet() <= maxStoredRejects) {
+            synchronized (rejects) {
+                rejects.add(rejected);
+            }
+        }
+    }
+    
+    public int totalRecords() {
+        return totalRecords.get();
+    }
+    
+    public int savedRecords() {
+        return savedRecords.get();
+    }
+    
+    public int skippedRecords() {
+        return skippedRecords.get();
+    }
+    
+    public int duplicateRecords() {
+        return duplicateRecords.get();
+    }
+    
+    public int batches() {
+        return batches.get();
+    }
+    
+    public int rejectedRecords() {
+        return rejectedRecords.get();
+    }
+    
+    public List<RejectedRecord> rejects() {
+        synchronized (rejects) {
+            return List.copyOf(rejects);
+        }
+    }
+    
+    /**
+     * Формирует ответ по текущим значениям счетчиков.
+     */
+    public RewardUploadResponse toResponse() {
+        Integer total = totalRecords() + (int) resumedAfter;
+        Integer saved = savedRecords();
+        Integer skipped = skippedRecords();
+        Integer duplicates = duplicateRecords();
+        Integer rejected = rejectedRecords();
+        
+        String message = String.format(
+            "Обработано записей: %d, сохранено: %d, пропущено: %d, дубликатов: %d",
+            total, saved, skipped, duplicates
+        );
+        if (rejected > 0) {
+            message += String.format(", отклонено строк с ошибками: %d", rejected);
+        }
+        if (resumedAfter > 0) {
+            message += String.format(". Загрузка продолжена после %d записей, сохраненных ранее: они входят "
+                + "в количество обработанных, но не в остальные счетчики", resumedAfter);
+        }
+        
+        return new RewardUploadResponse(total, saved, skipped, duplicates, rejected, batches(), message, rejects());
+    }
+}
@@ -3,14 +3,73 @@ CREATE TABLE IF NOT EXISTS employees (
     full_name VARCHAR(255) NOT NULL
 );
 
+-- Справочник типов наград: название хранится один раз, а не в каждой строке rewards
+CREATE TABLE IF NOT EXISTS reward_types (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL
+);
+
 CREATE TABLE IF NOT EXISTS rewards (
     id BIGSERIAL PRIMARY KEY,
     employee_id BIGINT NOT NULL,
     reward_id BIGINT NOT NULL,
-    reward_name VARCHAR(255) NOT NULL,
     received_date TIMESTAMP NOT NULL,
-    FOREIGN KEY (employee_id) REFERENCES employees(id)
+    FOREIGN KEY (employee_id) REFERENCES employees(id),
+    FOREIGN KEY (reward_id) REFERENCES reward_types(id)
+);
+
+-- Естественный ключ награды: повторная загрузка того же файла не создает дубликатов.
+-- Индекс начинается с employee_id, поэтому заменяет отдельный индекс по сотруднику
+CREATE UNIQUE INDEX IF NOT EXISTS ux_rewards_natural_key ON rewards(employee_id, reward_id, received_date);
+DROP INDEX IF EXISTS idx_rewards_employee_id;
+
+-- Постраничное чтение по ключу (received_date, id): все читаемые столбцы входят в индекс,
+-- поэтому страница читается из индекса без обращения к таблице
+CREATE INDEX IF NOT EXISTS idx_rewards_received_date_id ON rewards(received_date, id) INCLUDE (employee_id, reward_id);
+CREATE INDEX IF NOT EXISTS idx_rewards_employee_received_date_id ON rewards(employee_id, received_date, id) INCLUDE (reward_id);
+
+-- Количество наград по сотруднику, месяцу и типу награды; обновляется тем же запросом,
+-- которым сохраняется пачка наград (RewardBatchRepository)
+CREATE TABLE IF NOT EXISTS reward_aggregates (
+    employee_id BIGINT NOT NULL,
+    period DATE NOT NULL,
+    reward_id BIGINT NOT NULL,
+    reward_count BIGINT NOT NULL,
+    PRIMARY KEY (employee_id, period, reward_id)
+);
+
+CREATE TABLE IF NOT EXISTS upload_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    file_name VARCHAR(255) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    spool_path VARCHAR(1024),
+    total_records INTEGER NOT NULL DEFAULT 0,
+    saved_records INTEGER NOT NULL DEFAULT 0,
+    skipped_records INTEGER NOT NULL DEFAULT 0,
+    duplicate_records INTEGER NOT NULL DEFAULT 0,
+    message TEXT,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
 );
 
-CREATE INDEX IF NOT EXISTS idx_rewards_employee_id ON rewards(employee_id);
+CREATE INDEX IF NOT EXISTS idx_upload_jobs_status ON upload_jobs(status);
 
+CREATE TABLE IF NOT EXISTS upload_fingerprints (
+    sha256 CHAR(64) PRIMARY KEY,
+    file_size BIGINT NOT NULL,
+    total_records INTEGER NOT NULL,
+    saved_records INTEGER NOT NULL,
+    skipped_records INTEGER NOT NULL,
+    duplicate_records INTEGER NOT NULL,
+    batches INTEGER NOT NULL,
+    message TEXT,
+    created_at TIMESTAMP NOT NULL
+);
+
+-- Контрольные точки незавершенных загрузок: повторная загрузка того же файла
+-- продолжается после committed_records первых записей
+CREATE TABLE IF NOT EXISTS upload_checkpoints (
+    sha256 CHAR(64) PRIMARY KEY,
+    committed_records BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
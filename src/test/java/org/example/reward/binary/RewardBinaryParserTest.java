@@ -0,0 +1,120 @@
+package org.example.reward.binary;
+
+import org.example.reward.dto.RejectedRecord;
+import org.example.reward.dto.RewardRecord;
+import org.example.reward.exception.InvalidFileFormatException;
+import org.example.reward.exception.InvalidRecordException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RewardBinaryParserTest {
+    
+    @Test
+    void testParse_WrittenRecords_SplitIntoSmallChunks_RestoresRecords() throws IOException {
+        List<RewardRecord> expected = new ArrayList<>();
+        for (int i = 1; i <= 10_000; i++) {
+            expected.add(new RewardRecord((long) i % 100 + 1, "Сотрудник " + i % 100, 100L + i % 7,
+                "Награда " + i % 7, LocalDateTime.parse("2024-01-15T10:30:00").plusSeconds(i).plusNanos(i % 1000 * 1_000_000L)));
+        }
+        byte[] bytes = write(expected);
+        
+        for (int chunkSize : new int[] {1, 13, 4096, bytes.length}) {
+            List<RewardRecord> records = parse(bytes, chunkSize, new RewardBinaryParser());
+            assertEquals(expected, records);
+        }
+        // Одинаковые имена ссылаются на одну строку словаря
+        List<RewardRecord> records = parse(bytes, bytes.length, new RewardBinaryParser());
+        assertSame(records.get(0).rewardName(), records.get(7).rewardName());
+    }
+    
+    @Test
+    void testParse_InvalidRecord_Strict_ReportsRecordNumber() throws IOException {
+        byte[] bytes = write(List.of(
+            new RewardRecord(1L, "Иванов Иван Иванович", 100L, "Лучший сотрудник", LocalDateTime.parse("2024-01-15T10:30:00")),
+            new RewardRecord(-2L, "Петров Петр Петрович", 101L, "Наставник", LocalDateTime.parse("2024-02-20T14:45:00"))));
+        
+        InvalidRecordException exception = assertThrows(InvalidRecordException.class,
+            () -> parse(bytes, 7, new RewardBinaryParser()));
+        assertTrue(exception.getMessage().startsWith("Запись 2:"));
+    }
+    
+    @Test
+    void testParse_MissingDictionaryString_Lenient_RejectsRecord() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(out);
+        data.write(RewardBinaryFormat.MAGIC);
+        data.writeByte(RewardBinaryFormat.VERSION);
+        data.writeByte(RewardBinaryFormat.RECORDS_BLOCK);
+        data.writeInt(4 + RewardBinaryFormat.RECORD_BYTES);
+        data.writeInt(1);
+        data.writeLong(1);
+        data.writeInt(5);
+        data.writeLong(100);
+        data.writeInt(6);
+        data.writeLong(0);
+        List<RejectedRecord> rejects = new ArrayList<>();
+        
+        List<RewardRecord> records = parse(out.toByteArray(), 3, new RewardBinaryParser(rejects::add));
+        
+        assertTrue(records.isEmpty());
+        assertEquals(1, rejects.size());
+        assertEquals(1L, rejects.get(0).lineNumber());
+        assertTrue(rejects.get(0).reason().contains("отсутствующую строку словаря 5"));
+        assertEquals("1,#5,100,#6,0", rejects.get(0).content());
+    }
+    
+    @Test
+    void testParse_TruncatedFile_ReturnsError() throws IOException {
+        byte[] bytes = write(List.of(
+            new RewardRecord(1L, "Иванов Иван Иванович", 100L, "Лучший сотрудник", LocalDateTime.parse("2024-01-15T10:30:00"))));
+        
+        InvalidFileFormatException exception = assertThrows(InvalidFileFormatException.class,
+            () -> parse(Arrays.copyOf(bytes, bytes.length - 1), 16, new RewardBinaryParser()));
+        assertTrue(exception.getMessage().contains("обрезан"));
+    }
+    
+    @Test
+    void testParse_NotBinaryFile_ReturnsError() {
+        byte[] csv = "employeeId,employeeFullName,rewardId,rewardName,receivedDate\n".getBytes();
+        
+        assertThrows(InvalidFileFormatException.class, () -> parse(csv, 16, new RewardBinaryParser()));
+        assertThrows(InvalidFileFormatException.class, () -> parse(new byte[0], 16, new RewardBinaryParser()));
+    }
+    
+    @Test
+    void testWrite_SubMillisecondDate_ThrowsException() throws IOException {
+        RewardBinaryWriter writer = new RewardBinaryWriter(new ByteArrayOutputStream());
+        
+        assertThrows(IllegalArgumentException.class, () -> writer.write(new RewardRecord(1L, "Иванов Иван Иванович",
+            100L, "Лучший сотрудник", LocalDateTime.parse("2024-01-15T10:30:00.000001"))));
+    }
+    
+    private static byte[] write(List<RewardRecord> records) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (RewardBinaryWriter writer = new RewardBinaryWriter(out)) {
+            for (RewardRecord record : records) {
+                writer.write(record);
+            }
+        }
+        return out.toByteArray();
+    }
+    
+    private static List<RewardRecord> parse(byte[] bytes, int chunkSize, RewardBinaryParser parser) {
+        List<RewardRecord> records = new ArrayList<>();
+        for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+            parser.feed(ByteBuffer.wrap(bytes, offset, Math.min(chunkSize, bytes.length - offset)), records);
+        }
+        parser.finish();
+        return records;
+    }
+}
@@ -0,0 +1,171 @@
+package org.example.reward.cache;
+
+import org.example.reward.config.RewardProperties;
+import org.example.reward.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeIdCacheTest {
+    
+    @Mock
+    private EmployeeRepository employeeRepository;
+    
+    private RewardProperties properties;
+    
+    @BeforeEach
+    void setUp() {
+        properties = new RewardProperties();
+    }
+    
+    @Test
+    void testFindExistingIds_WarmCache_DoesNotQueryDatabase() {
+        EmployeeIdCache cache = warmCache(1L, 2L, 3L);
+        
+        StepVerifier.create(cache.findExistingIds(new Long[]{1L, 3L}))
+            .assertNext(ids -> assertEquals(Set.of(1L, 3L), ids))
+            .verifyComplete();
+        
+        verify(employeeRepository, never()).findExistingIds(any(Long[].class));
+    }
+    
+    @Test
+    void testFindExistingIds_Miss_QueriesOnlyMissingIds() {
+        EmployeeIdCache cache = warmCache(1L, 2L);
+        when(employeeRepository.findExistingIds(new Long[]{5L, 999L})).thenReturn(Flux.just(5L));
+        
+        StepVerifier.create(cache.findExistingIds(new Long[]{1L, 5L, 999L}))
+            .assertNext(ids -> assertEquals(Set.of(1L, 5L), ids))
+            .verifyComplete();
+        
+        // найденный в БД сотрудник попадает в кэш
+        StepVerifier.create(cache.findExistingIds(new Long[]{5L}))
+            .assertNext(ids -> assertEquals(Set.of(5L), ids))
+            .verifyComplete();
+        
+        verify(employeeRepository, times(1)).findExistingIds(any(Long[].class));
+    }
+    
+    @Test
+    void testAdd_NewEmployee_AvailableWithoutDatabase() {
+        EmployeeIdCache cache = warmCache(1L);
+        
+        cache.add(42L);
+        
+        StepVerifier.create(cache.findExistingIds(new Long[]{42L}))
+            .assertNext(ids -> assertEquals(Set.of(42L), ids))
+            .verifyComplete();
+        
+        verify(employeeRepository, never()).findExistingIds(any(Long[].class));
+    }
+    
+    @Test
+    void testFindExistingIds_TooManyEmployees_FallsBackToDatabase() {
+        properties.getEmployeeCache().setMaxSize(2);
+        when(employeeRepository.count()).thenReturn(Mono.just(3L));
+        when(employeeRepository.findExistingIds(any(Long[].class))).thenReturn(Flux.just(1L));
+        
+        EmployeeIdCache cache = new EmployeeIdCache(employeeRepository, properties);
+        cache.warmUp();
+        
+        StepVerifier.create(cache.findExistingIds(new Long[]{1L}))
+            .assertNext(ids -> assertEquals(Set.of(1L), ids))
+            .verifyComplete();
+        
+        verify(employeeRepository, never()).findAllIds();
+        verify(employeeRepository, times(1)).findExistingIds(any(Long[].class));
+    }
+    
+    @Test
+    void testFindExistingIds_ExpiredSnapshot_FallsBackToDatabase() {
+        properties.getEmployeeCache().setTtl(Duration.ZERO);
+        EmployeeIdCache cache = warmCache(1L);
+        when(employeeRepository.findExistingIds(any(Long[].class))).thenReturn(Flux.just(1L));
+        
+        StepVerifier.create(cache.findExistingIds(new Long[]{1L}))
+            .assertNext(ids -> assertEquals(Set.of(1L), ids))
+            .verifyComplete();
+        
+        verify(employeeRepository, times(1)).findExistingIds(any(Long[].class));
+    }
+    
+    @Test
+    void testRecheckExistingIds_DeletedEmployee_ReloadsSnapshot() {
+        EmployeeIdCache cache = warmCache(1L, 2L);
+        when(employeeRepository.findExistingIds(any(Long[].class))).thenReturn(Flux.just(1L), Flux.empty());
+        when(employeeRepository.count()).thenReturn(Mono.just(1L));
+        when(employeeRepository.findAllIds()).thenReturn(Flux.just(1L));
+        
+        StepVerifier.create(cache.recheckExistingIds(new Long[]{1L, 2L}))
+            .assertNext(ids -> assertEquals(Set.of(1L), ids))
+            .verifyComplete();
+        
+        // удаленный сотрудник больше не считается существующим
+        StepVerifier.create(cache.findExistingIds(new Long[]{2L}))
+            .assertNext(ids -> assertTrue(ids.isEmpty()))
+            .verifyComplete();
+        
+        verify(employeeRepository, times(2)).findAllIds();
+    }
+    
+    @Test
+    void testInvalidate_DuringLoad_ReloadsAfterRunningLoad() {
+        Sinks.One<Long> firstCount = Sinks.one();
+        when(employeeRepository.count()).thenReturn(firstCount.asMono(), Mono.just(1L));
+        when(employeeRepository.findAllIds()).thenReturn(Flux.just(1L, 2L), Flux.just(1L));
+        EmployeeIdCache cache = new EmployeeIdCache(employeeRepository, properties);
+        AtomicBoolean invalidated = new AtomicBoolean();
+        
+        // Первая загрузка ждет ответа БД, сброс во время нее должен загрузить снимок заново
+        cache.invalidate().subscribe();
+        cache.invalidate().subscribe(null, null, () -> invalidated.set(true));
+        assertFalse(invalidated.get());
+        
+        firstCount.tryEmitValue(2L);
+        assertTrue(invalidated.get());
+        
+        when(employeeRepository.findExistingIds(new Long[]{2L})).thenReturn(Flux.empty());
+        StepVerifier.create(cache.findExistingIds(new Long[]{1L, 2L}))
+            .assertNext(ids -> assertEquals(Set.of(1L), ids))
+            .verifyComplete();
+        verify(employeeRepository, times(2)).findAllIds();
+    }
+    
+    @Test
+    void testLongHashSet_AddAndContains() {
+        LongHashSet set = new LongHashSet(2);
+        for (long value = 0; value < 10_000; value += 3) {
+            assertTrue(set.add(value));
+        }
+        
+        assertFalse(set.add(9L));
+        assertEquals(3334, set.size());
+        assertTrue(set.contains(0L));
+        assertTrue(set.contains(9_999L));
+        assertFalse(set.contains(10L));
+    }
+    
+    private EmployeeIdCache warmCache(Long... ids) {
+        when(employeeRepository.count()).thenReturn(Mono.just((long) ids.length));
+        when(employeeRepository.findAllIds()).thenReturn(Flux.just(ids));
+        
+        EmployeeIdCache cache = new EmployeeIdCache(employeeRepository, properties);
+        cache.warmUp();
+        return cache;
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.reward.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.reward.config.RewardProperties;
+import org.example.reward.dto.RewardView;
+import org.example.reward.metrics.RewardMetrics;
+import org.example.reward.repository.RewardRepository;
+import org.example.reward.service.RewardsSavedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RewardQueryCacheTest {
+    
+    private static final LocalDateTime FROM = LocalDateTime.parse("2024-01-01T00:00:00");
+    private static final LocalDateTime TO = LocalDateTime.parse("2025-01-01T00:00:00");
+    
+    @Mock
+    private RewardRepository rewardRepository;
+    
+    private RewardProperties properties;
+    
+    private SimpleMeterRegistry registry;
+    
+    @BeforeEach
+    void setUp() {
+        properties = new RewardProperties();
+        registry = new SimpleMeterRegistry();
+        lenient().when(rewardRepository.findEmployeePage(anyLong(), any(), anyLong(), any(), anyInt()))
+            .thenAnswer(invocation -> Flux.just(new RewardView(
+                1L, invocation.getArgument(0), 100L, "Лучший сотрудник", LocalDateTime.parse("2024-01-15T10:30:00"))));
+    }
+    
+    @Test
+    void testFindEmployeePage_RepeatedRequest_ServedFromCache() {
+        RewardQueryCache cache = new RewardQueryCache(rewardRepository, properties, new RewardMetrics(registry));
+        
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(cache.findEmployeePage(7L, FROM, 0, TO, 100))
+                .assertNext(reward -> assertEquals(7L, reward.employeeId()))
+                .verifyComplete();
+        }
+        
+        verify(rewardRepository, times(1)).findEmployeePage(7L, FROM, 0, TO, 100);
+        assertEquals(2, registry.get("cache.gets").tag("cache", RewardQueryCache.CACHE_NAME).tag("result", "hit")
+            .functionCounter().count());
+        assertEquals(1, registry.get("cache.gets").tag("cache", RewardQueryCache.CACHE_NAME).tag("result", "miss")
+            .functionCounter().count());
+    }
+    
+    @Test
+    void testOnRewardsSaved_InvalidatesOnlySavedEmployees() {
+        RewardQueryCache cache = new RewardQueryCache(rewardRepository, properties, RewardMetrics.noop());
+        cache.findEmployeePage(7L, FROM, 0, TO, 100).blockLast();
+        cache.findEmployeePage(7L, FROM, 0, TO, 10).blockLast();
+        cache.findEmployeePage(8L, FROM, 0, TO, 100).blockLast();
+        
+        cache.onRewardsSaved(new RewardsSavedEvent(Set.of(7L, 9L)));
+        
+        cache.findEmployeePage(7L, FROM, 0, TO, 100).blockLast();
+        cache.findEmployeePage(7L, FROM, 0, TO, 10).blockLast();
+        cache.findEmployeePage(8L, FROM, 0, TO, 100).blockLast();
+        
+        verify(rewardRepository, times(2)).findEmployeePage(7L, FROM, 0, TO, 100);
+        verify(rewardRepository, times(2)).findEmployeePage(7L, FROM, 0, TO, 10);
+        verify(rewardRepository, times(1)).findEmployeePage(8L, FROM, 0, TO, 100);
+    }
+    
+    @Test
+    void testFindEmployeePage_LoadFails_RemovesKeyFromIndex() throws Exception {
+        when(rewardRepository.findEmployeePage(7L, FROM, 0, TO, 100))
+            .thenReturn(Flux.error(new RuntimeException("БД недоступна")));
+        RewardQueryCache cache = new RewardQueryCache(rewardRepository, properties, RewardMetrics.noop());
+        
+        StepVerifier.create(cache.findEmployeePage(7L, FROM, 0, TO, 100))
+            .expectErrorMessage("БД недоступна")
+            .verify();
+        
+        // Уведомления об удалении из кэша выполняются асинхронно
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (cache.indexedKeys() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, cache.indexedKeys());
+    }
+    
+    @Test
+    void testFindEmployeePage_CacheDisabled_AlwaysQueriesDatabase() {
+        properties.getQueryCache().setEnabled(false);
+        RewardQueryCache cache = new RewardQueryCache(rewardRepository, properties, RewardMetrics.noop());
+        
+        cache.findEmployeePage(7L, FROM, 0, TO, 100).blockLast();
+        cache.findEmployeePage(7L, FROM, 0, TO, 100).blockLast();
+        
+        verify(rewardRepository, times(2)).findEmployeePage(7L, FROM, 0, TO, 100);
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.reward.cache;
+
+import org.example.reward.dto.RewardRecord;
+import org.example.reward.entity.RewardType;
+import org.example.reward.repository.RewardTypeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RewardTypeCatalogTest {
+    
+    @Mock
+    private RewardTypeRepository rewardTypeRepository;
+    
+    @Test
+    void testRegisterTypes_NewTypes_InsertsEachTypeOnceWithFirstName() {
+        RewardTypeCatalog catalog = new RewardTypeCatalog(rewardTypeRepository);
+        when(rewardTypeRepository.insertMissing(any(Long[].class), any(String[].class))).thenReturn(Mono.just(2));
+        
+        StepVerifier.create(catalog.registerTypes(List.of(
+                record(100L, "Лучший сотрудник"), record(101L, "Инноватор года"), record(100L, "Другое название"))))
+            .verifyComplete();
+        
+        verify(rewardTypeRepository).insertMissing(new Long[]{100L, 101L}, new String[]{"Лучший сотрудник", "Инноватор года"});
+    }
+    
+    @Test
+    void testRegisterTypes_KnownTypes_DoesNotQueryDatabase() {
+        when(rewardTypeRepository.findAll()).thenReturn(Flux.just(new RewardType(100L, "Лучший сотрудник")));
+        when(rewardTypeRepository.insertMissing(any(Long[].class), any(String[].class))).thenReturn(Mono.just(1));
+        RewardTypeCatalog catalog = new RewardTypeCatalog(rewardTypeRepository);
+        catalog.warmUp();
+        
+        StepVerifier.create(catalog.registerTypes(List.of(record(100L, "Лучший сотрудник"), record(101L, "Инноватор года"))))
+            .verifyComplete();
+        // добавленный тип запоминается
+        StepVerifier.create(catalog.registerTypes(List.of(record(101L, "Инноватор года"), record(100L, "Лучший сотрудник"))))
+            .verifyComplete();
+        
+        verify(rewardTypeRepository, times(1)).insertMissing(new Long[]{101L}, new String[]{"Инноватор года"});
+        verifyNoMoreInteractions(rewardTypeRepository);
+    }
+    
+    @Test
+    void testInvalidate_ChecksTypesAgain() {
+        RewardTypeCatalog catalog = new RewardTypeCatalog(rewardTypeRepository);
+        when(rewardTypeRepository.insertMissing(any(Long[].class), any(String[].class))).thenReturn(Mono.just(0));
+        List<RewardRecord> records = List.of(record(100L, "Лучший сотрудник"));
+        
+        catalog.registerTypes(records).block();
+        catalog.invalidate();
+        catalog.registerTypes(records).block();
+        
+        verify(rewardTypeRepository, times(2)).insertMissing(any(Long[].class), any(String[].class));
+    }
+    
+    private static RewardRecord record(long rewardId, String rewardName) {
+        return new RewardRecord(1L, "Иванов Иван Иванович", rewardId, rewardName, LocalDateTime.parse("2024-01-15T10:30:00"));
+    }
+}
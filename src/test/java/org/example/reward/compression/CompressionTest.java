@@ -0,0 +1,125 @@
+package org.example.reward.compression;
+
+import com.github.luben.zstd.Zstd;
+import org.example.reward.exception.InvalidFileFormatException;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionTest {
+    
+    private static final byte[] CSV_CONTENT = ("employeeId,employeeFullName,rewardId,rewardName,receivedDate\n" +
+        "1,Иванов Иван Иванович,100,Лучший сотрудник,2024-01-15T10:30:00\n".repeat(5000))
+        .getBytes(StandardCharsets.UTF_8);
+    
+    @Test
+    void testForFileName_DetectsCompressionByExtension() {
+        assertEquals(Compression.NONE, Compression.forFileName("rewards.csv"));
+        assertEquals(Compression.GZIP, Compression.forFileName("REWARDS.CSV.GZ"));
+        assertEquals(Compression.ZSTD, Compression.forFileName("rewards.csv.zst"));
+        assertNull(Compression.forFileName("rewards.gz"));
+        assertNull(Compression.forFileName("rewards.txt"));
+        assertNull(Compression.forFileName(null));
+    }
+    
+    @Test
+    void testDecode_Gzip_SmallChunks_RestoresContent() throws IOException {
+        byte[] compressed = gzip(CSV_CONTENT);
+        
+        assertArrayEquals(CSV_CONTENT, decode(Compression.GZIP, split(compressed, 7)));
+    }
+    
+    @Test
+    void testDecode_GzipMultipleMembers_RestoresConcatenatedContent() throws IOException {
+        byte[] first = Arrays.copyOfRange(CSV_CONTENT, 0, 1000);
+        byte[] second = Arrays.copyOfRange(CSV_CONTENT, 1000, CSV_CONTENT.length);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        compressed.write(gzip(first));
+        compressed.write(gzip(second));
+        
+        assertArrayEquals(CSV_CONTENT, decode(Compression.GZIP, split(compressed.toByteArray(), 100)));
+    }
+    
+    @Test
+    void testDecode_GzipTruncated_ReturnsError() throws IOException {
+        byte[] compressed = gzip(CSV_CONTENT);
+        
+        StepVerifier.create(DataBufferUtils.join(Compression.GZIP.decode(
+                split(Arrays.copyOf(compressed, compressed.length - 4), 1024))))
+            .expectErrorMatches(throwable ->
+                throwable instanceof InvalidFileFormatException &&
+                throwable.getMessage().contains("обрезан")
+            )
+            .verify();
+    }
+    
+    @Test
+    void testDecode_NotGzip_ReturnsError() {
+        StepVerifier.create(Compression.GZIP.decode(split(CSV_CONTENT, 1024)))
+            .expectError(InvalidFileFormatException.class)
+            .verify();
+    }
+    
+    @Test
+    void testDecode_Zstd_SmallChunks_RestoresContent() {
+        byte[] compressed = Zstd.compress(CSV_CONTENT);
+        
+        assertArrayEquals(CSV_CONTENT, decode(Compression.ZSTD, split(compressed, 7)));
+    }
+    
+    @Test
+    void testDecode_ZstdTruncated_ReturnsError() {
+        byte[] compressed = Zstd.compress(CSV_CONTENT);
+        
+        StepVerifier.create(DataBufferUtils.join(Compression.ZSTD.decode(
+                split(Arrays.copyOf(compressed, compressed.length / 2), 1024))))
+            .expectError(InvalidFileFormatException.class)
+            .verify();
+    }
+    
+    @Test
+    void testDecode_None_ReturnsContentAsIs() {
+        Flux<DataBuffer> content = split(CSV_CONTENT, 1024);
+        
+        assertSame(content, Compression.NONE.decode(content));
+    }
+    
+    private static byte[] decode(Compression compression, Flux<DataBuffer> content) {
+        DataBuffer joined = DataBufferUtils.join(compression.decode(content)).block();
+        assertNotNull(joined);
+        byte[] bytes = new byte[joined.readableByteCount()];
+        joined.read(bytes);
+        DataBufferUtils.release(joined);
+        return bytes;
+    }
+    
+    private static Flux<DataBuffer> split(byte[] bytes, int chunkSize) {
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int from = 0; from < bytes.length; from += chunkSize) {
+            buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(
+                Arrays.copyOfRange(bytes, from, Math.min(bytes.length, from + chunkSize))));
+        }
+        return Flux.fromIterable(buffers);
+    }
+    
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
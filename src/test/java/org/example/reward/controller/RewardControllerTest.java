@@ -1,16 +1,23 @@
 package org.example.reward.controller;
 
+import org.example.reward.config.RewardProperties;
+import org.example.reward.dto.RejectedRecord;
 import org.example.reward.dto.RewardRecord;
 import org.example.reward.dto.RewardUploadResponse;
+import org.example.reward.entity.UploadJobStatus;
 import org.example.reward.exception.InvalidFileFormatException;
 import org.example.reward.exception.InvalidRecordException;
+import org.example.reward.metrics.RewardMetrics;
 import org.example.reward.service.CsvParserService;
 import org.example.reward.service.RewardService;
+import org.example.reward.service.UploadFingerprintService;
+import org.example.reward.service.UploadProgress;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
@@ -21,7 +28,12 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -36,6 +48,12 @@ class RewardControllerTest {
     @Mock
     private RewardService rewardService;
     
+    @Mock
+    private UploadFingerprintService uploadFingerprintService;
+    
+    @Spy
+    private RewardMetrics rewardMetrics = RewardMetrics.noop();
+    
     @Mock
     private FilePart filePart;
     
@@ -45,6 +63,9 @@ class RewardControllerTest {
     @BeforeEach
     void setUp() {
         when(filePart.filename()).thenReturn("rewards.csv");
+        lenient().when(uploadFingerprintService.processOnce(any(), any()))
+            .thenAnswer(invocation -> invocation.<BiFunction<Flux<DataBuffer>, String, Mono<RewardUploadResponse>>>getArgument(1)
+                .apply(invocation.getArgument(0), null));
     }
     
     @Test
@@ -65,35 +86,35 @@ class RewardControllerTest {
             LocalDateTime.parse("2024-01-15T10:30:00")
         );
         
-        when(csvParserService.parseCsv(any())).thenReturn(Flux.just(record));
+        when(csvParserService.parseFile(anyString(), any(), isNull())).thenReturn(Flux.just(record));
         
         RewardUploadResponse response = new RewardUploadResponse(1, 1, 0, "Успешно");
-        when(rewardService.processRewards(any())).thenReturn(Mono.just(response));
+        when(rewardService.processRewards(any(), any(UploadProgress.class), any())).thenReturn(Mono.just(response));
         
-        StepVerifier.create(rewardController.uploadRewards(filePart))
+        StepVerifier.create(rewardController.uploadRewards(filePart, false))
             .assertNext(resp -> {
                 assertEquals(1, resp.totalRecords());
                 assertEquals(1, resp.savedRecords());
             })
             .verifyComplete();
         
-        verify(csvParserService, times(1)).parseCsv(any());
-        verify(rewardService, times(1)).processRewards(any());
+        verify(csvParserService, times(1)).parseFile(anyString(), any(), isNull());
+        verify(rewardService, times(1)).processRewards(any(), any(UploadProgress.class), any());
     }
     
     @Test
     void testUploadRewards_InvalidFileExtension_ReturnsError() {
         when(filePart.filename()).thenReturn("rewards.txt");
         
-        StepVerifier.create(rewardController.uploadRewards(filePart))
+        StepVerifier.create(rewardController.uploadRewards(filePart, false))
             .expectErrorMatches(throwable -> 
                 throwable instanceof InvalidFileFormatException &&
                 throwable.getMessage().contains("CSV файлы")
             )
             .verify();
         
-        verify(csvParserService, never()).parseCsv(any());
-        verify(rewardService, never()).processRewards(any());
+        verify(csvParserService, never()).parseFile(anyString(), any(), isNull());
+        verify(rewardService, never()).processRewards(any(), any(UploadProgress.class), any());
     }
     
     @Test
@@ -103,18 +124,116 @@ class RewardControllerTest {
         );
         
         when(filePart.content()).thenReturn(Flux.just(dataBuffer));
-        when(csvParserService.parseCsv(any()))
+        when(csvParserService.parseFile(anyString(), any(), isNull()))
             .thenReturn(Flux.error(new InvalidFileFormatException("Ошибка парсинга")));
         
-        StepVerifier.create(rewardController.uploadRewards(filePart))
+        StepVerifier.create(rewardController.uploadRewards(filePart, false))
             .expectErrorMatches(throwable -> 
                 throwable instanceof InvalidFileFormatException ||
                 (throwable.getCause() instanceof InvalidFileFormatException)
             )
             .verify();
         
-        verify(csvParserService, atLeastOnce()).parseCsv(any());
-        verify(rewardService, never()).processRewards(any());
+        verify(csvParserService, atLeastOnce()).parseFile(anyString(), any(), isNull());
+        verify(rewardService, never()).processRewards(any(), any(UploadProgress.class), any());
+    }
+    
+    @Test
+    void testUploadRewards_Lenient_ReturnsRejectedRows() {
+        RewardController controller = new RewardController(csvParserService, rewardService, new RewardProperties(),
+            uploadFingerprintService, rewardMetrics);
+        
+        when(filePart.content()).thenReturn(Flux.empty());
+        
+        RewardRecord record = new RewardRecord(
+            1L, "Иванов Иван Иванович", 100L, "Лучший сотрудник",
+            LocalDateTime.parse("2024-01-15T10:30:00")
+        );
+        RejectedRecord rejected = new RejectedRecord(3, "Неверный формат даты", "2,Петров,101,Наставник,15.01.2024");
+        when(csvParserService.parseFile(anyString(), any(), notNull())).thenAnswer(invocation -> {
+            Consumer<RejectedRecord> rejectedRecords = invocation.getArgument(2);
+            return Flux.just(record).doOnComplete(() -> rejectedRecords.accept(rejected));
+        });
+        when(rewardService.processRewards(any(), any(UploadProgress.class), any())).thenAnswer(invocation -> {
+            Flux<RewardRecord> records = invocation.getArgument(0);
+            UploadProgress progress = invocation.getArgument(1);
+            return records.then(Mono.fromSupplier(progress::toResponse));
+        });
+        
+        StepVerifier.create(controller.uploadRewards(filePart, true))
+            .assertNext(response -> {
+                assertEquals(1, response.rejectedRecords());
+                assertEquals(List.of(rejected), response.errors());
+            })
+            .verifyComplete();
+        
+        verify(csvParserService, never()).parseFile(anyString(), any(), isNull());
+    }
+    
+    @Test
+    void testUploadRewardsWithProgress_ValidCsvFile_EndsWithCompletedEvent() {
+        RewardProperties properties = new RewardProperties();
+        properties.setProgressInterval(Duration.ofMillis(10));
+        RewardController controller = new RewardController(csvParserService, rewardService, properties,
+            uploadFingerprintService, rewardMetrics);
+        
+        DataBuffer dataBuffer = new DefaultDataBufferFactory().wrap(
+            "employeeId,employeeFullName,rewardId,rewardName,receivedDate".getBytes(StandardCharsets.UTF_8)
+        );
+        when(filePart.content()).thenReturn(Flux.just(dataBuffer));
+        
+        RewardRecord record = new RewardRecord(
+            1L, "Иванов Иван Иванович", 100L, "Лучший сотрудник",
+            LocalDateTime.parse("2024-01-15T10:30:00")
+        );
+        when(csvParserService.parseFile(anyString(), any(), isNull())).thenReturn(Flux.just(record));
+        when(rewardService.processRewards(any(), any(UploadProgress.class), any()))
+            .thenReturn(Mono.just(new RewardUploadResponse(1, 1, 0, "Успешно")));
+        
+        StepVerifier.create(controller.uploadRewardsWithProgress(filePart, false))
+            .thenConsumeWhile(event -> event.status() == UploadJobStatus.RUNNING)
+            .assertNext(event -> {
+                assertEquals(UploadJobStatus.COMPLETED, event.status());
+                assertEquals("Успешно", event.message());
+            })
+            .verifyComplete();
+    }
+    
+    @Test
+    void testUploadRewardsWithProgress_ClientDisconnects_CancelsUpload() {
+        RewardController controller = new RewardController(csvParserService, rewardService, new RewardProperties(),
+            uploadFingerprintService, rewardMetrics);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        
+        when(filePart.content()).thenReturn(Flux.empty());
+        when(csvParserService.parseFile(anyString(), any(), isNull()))
+            .thenReturn(Flux.<RewardRecord>never().doOnCancel(() -> cancelled.set(true)));
+        
+        StepVerifier.create(controller.uploadRewardsWithProgress(filePart, false))
+            .assertNext(event -> assertEquals(UploadJobStatus.RUNNING, event.status()))
+            .thenCancel()
+            .verify();
+        
+        assertTrue(cancelled.get());
+    }
+    
+    @Test
+    void testUploadRewardsWithProgress_ParseError_EndsWithFailedEvent() {
+        RewardController controller = new RewardController(csvParserService, rewardService, new RewardProperties(),
+            uploadFingerprintService, rewardMetrics);
+        
+        when(filePart.content()).thenReturn(Flux.empty());
+        when(csvParserService.parseFile(anyString(), any(), isNull()))
+            .thenReturn(Flux.error(new InvalidFileFormatException("CSV файл пуст")));
+        
+        StepVerifier.create(controller.uploadRewardsWithProgress(filePart, false))
+            .thenConsumeWhile(event -> event.status() == UploadJobStatus.RUNNING)
+            .assertNext(event -> {
+                assertEquals(UploadJobStatus.FAILED, event.status());
+                assertEquals("CSV файл пуст", event.message());
+            })
+            .verifyComplete();
+        
+        verify(rewardService, never()).processRewards(any(), any(UploadProgress.class), any());
     }
 }
-
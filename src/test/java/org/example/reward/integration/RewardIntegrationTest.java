@@ -1,16 +1,24 @@
 package org.example.reward.integration;
 
 import io.r2dbc.spi.ConnectionFactory;
+import org.example.reward.cache.RewardTypeCatalog;
+import org.example.reward.config.RewardProperties;
+import org.example.reward.dto.RewardAggregateView;
+import org.example.reward.dto.RewardView;
 import org.example.reward.entity.Employee;
 import org.example.reward.entity.Reward;
+import org.example.reward.entity.RewardType;
 import org.example.reward.repository.EmployeeRepository;
 import org.example.reward.repository.RewardRepository;
+import org.example.reward.repository.RewardTypeRepository;
 import org.example.reward.service.CsvParserService;
+import org.example.reward.service.RewardQueryService;
 import org.example.reward.service.RewardService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertyRegistry;
@@ -23,7 +31,11 @@ import reactor.test.StepVerifier;
 
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -59,6 +71,18 @@ class RewardIntegrationTest {
     @Autowired
     private RewardRepository rewardRepository;
     
+    @Autowired
+    private RewardTypeRepository rewardTypeRepository;
+    
+    @Autowired
+    private RewardTypeCatalog rewardTypeCatalog;
+    
+    @Autowired
+    private RewardQueryService rewardQueryService;
+    
+    @Autowired
+    private RewardProperties rewardProperties;
+    
     @Autowired
     private ConnectionFactory connectionFactory;
     
@@ -74,20 +98,45 @@ class RewardIntegrationTest {
             )
             """).fetch().rowsUpdated().block();
         
+        databaseClient.sql("""
+            CREATE TABLE IF NOT EXISTS reward_types (
+                id BIGINT PRIMARY KEY,
+                name VARCHAR(255) NOT NULL
+            )
+            """).fetch().rowsUpdated().block();
+        
         databaseClient.sql("""
             CREATE TABLE IF NOT EXISTS rewards (
                 id BIGSERIAL PRIMARY KEY,
                 employee_id BIGINT NOT NULL,
                 reward_id BIGINT NOT NULL,
-                reward_name VARCHAR(255) NOT NULL,
                 received_date TIMESTAMP NOT NULL,
-                FOREIGN KEY (employee_id) REFERENCES employees(id)
+                FOREIGN KEY (employee_id) REFERENCES employees(id),
+                FOREIGN KEY (reward_id) REFERENCES reward_types(id)
             )
             """).fetch().rowsUpdated().block();
         
-        // Очистка данных перед каждым тестом (сначала награды, потом сотрудники)
+        databaseClient.sql("""
+            CREATE UNIQUE INDEX IF NOT EXISTS ux_rewards_natural_key
+                ON rewards(employee_id, reward_id, received_date)
+            """).fetch().rowsUpdated().block();
+        
+        databaseClient.sql("""
+            CREATE TABLE IF NOT EXISTS reward_aggregates (
+                employee_id BIGINT NOT NULL,
+                period DATE NOT NULL,
+                reward_id BIGINT NOT NULL,
+                reward_count BIGINT NOT NULL,
+                PRIMARY KEY (employee_id, period, reward_id)
+            )
+            """).fetch().rowsUpdated().block();
+        
+        // Очистка данных перед каждым тестом (сначала награды, потом сотрудники и типы наград)
         databaseClient.sql("DELETE FROM rewards").fetch().rowsUpdated().block();
+        databaseClient.sql("DELETE FROM reward_aggregates").fetch().rowsUpdated().block();
         databaseClient.sql("DELETE FROM employees").fetch().rowsUpdated().block();
+        databaseClient.sql("DELETE FROM reward_types").fetch().rowsUpdated().block();
+        rewardTypeCatalog.invalidate();
         
         // Создание тестовых сотрудников
         Employee employee1 = new Employee(null, "Иванов Иван Иванович");
@@ -143,6 +192,122 @@ class RewardIntegrationTest {
                 assertTrue(hasEmp2Reward, "Должна быть награда для сотрудника 2");
             })
             .verifyComplete();
+        
+        // Названия хранятся в справочнике; тип награды несуществующего сотрудника не добавляется
+        StepVerifier.create(rewardTypeRepository.findAll().collectMap(RewardType::getId, RewardType::getName))
+            .assertNext(types -> assertEquals(Map.of(100L, "Лучший сотрудник", 101L, "За отличную работу"), types))
+            .verifyComplete();
+    }
+    
+    @Test
+    void testFullFlow_SameFileUploadedTwice_SecondUploadCountsDuplicates() {
+        Employee emp1 = employeeRepository.findAll().blockFirst();
+        Long emp1Id = emp1 != null ? emp1.getId() : 1L;
+        
+        String csvContent = String.format("""
+            employeeId,employeeFullName,rewardId,rewardName,receivedDate
+            %d,Иванов Иван Иванович,100,Лучший сотрудник,2024-01-15T10:30:00
+            %d,Иванов Иван Иванович,101,За отличную работу,2024-02-20T14:45:00
+            """, emp1Id, emp1Id);
+        
+        for (int upload = 0; upload < 2; upload++) {
+            int expectedSaved = upload == 0 ? 2 : 0;
+            int expectedDuplicates = upload == 0 ? 0 : 2;
+            
+            StepVerifier.create(rewardService.processRewards(csvParserService.parseCsv(
+                    new ByteArrayInputStream(csvContent.getBytes(StandardCharsets.UTF_8)))))
+                .assertNext(response -> {
+                    assertEquals(2, response.totalRecords());
+                    assertEquals(expectedSaved, response.savedRecords());
+                    assertEquals(expectedDuplicates, response.duplicateRecords());
+                })
+                .verifyComplete();
+        }
+        
+        StepVerifier.create(rewardRepository.count())
+            .expectNext(2L)
+            .verifyComplete();
+        
+        // Дубликаты второй загрузки не увеличивают счетчики
+        StepVerifier.create(rewardQueryService.findAggregates(emp1Id, null, null).map(RewardAggregateView::rewardCount))
+            .expectNext(1L, 1L)
+            .verifyComplete();
+    }
+    
+    @Test
+    void testFullFlow_FailOnDuplicate_SecondUploadFails() {
+        Employee emp1 = employeeRepository.findAll().blockFirst();
+        Long emp1Id = emp1 != null ? emp1.getId() : 1L;
+        
+        String csvContent = String.format("""
+            employeeId,employeeFullName,rewardId,rewardName,receivedDate
+            %d,Иванов Иван Иванович,100,Лучший сотрудник,2024-01-15T10:30:00
+            """, emp1Id);
+        
+        StepVerifier.create(rewardService.processRewards(csvParserService.parseCsv(
+                new ByteArrayInputStream(csvContent.getBytes(StandardCharsets.UTF_8)))))
+            .assertNext(response -> assertEquals(1, response.savedRecords()))
+            .verifyComplete();
+        
+        rewardProperties.setFailOnDuplicate(true);
+        try {
+            StepVerifier.create(rewardService.processRewards(csvParserService.parseCsv(
+                    new ByteArrayInputStream(csvContent.getBytes(StandardCharsets.UTF_8)))))
+                .expectError(DataIntegrityViolationException.class)
+                .verify();
+        } finally {
+            rewardProperties.setFailOnDuplicate(false);
+        }
+        
+        StepVerifier.create(rewardRepository.count())
+            .expectNext(1L)
+            .verifyComplete();
+    }
+    
+    @Test
+    void testReadApi_KeysetPages_ReturnRewardsInDateOrder() {
+        Employee emp1 = employeeRepository.findAll().blockFirst();
+        Long emp1Id = emp1 != null ? emp1.getId() : 1L;
+        
+        String csvContent = String.format("""
+            employeeId,employeeFullName,rewardId,rewardName,receivedDate
+            %1$d,Иванов Иван Иванович,100,Лучший сотрудник,2024-03-01T12:00:00
+            %1$d,Иванов Иван Иванович,101,За отличную работу,2024-01-15T10:30:00
+            %1$d,Иванов Иван Иванович,102,Инноватор года,2024-01-15T10:30:00
+            %1$d,Иванов Иван Иванович,103,Наставник,2024-02-20T14:45:00
+            """, emp1Id);
+        rewardService.processRewards(csvParserService.parseCsv(
+            new ByteArrayInputStream(csvContent.getBytes(StandardCharsets.UTF_8)))).block();
+        
+        List<RewardView> firstPage = rewardQueryService.findEmployeeRewards(emp1Id, null, null, null, null, 2)
+            .collectList().block();
+        assertNotNull(firstPage);
+        assertEquals(2, firstPage.size());
+        assertEquals(LocalDateTime.parse("2024-01-15T10:30:00"), firstPage.get(0).receivedDate());
+        assertTrue(firstPage.get(0).id() < firstPage.get(1).id());
+        
+        RewardView last = firstPage.get(1);
+        StepVerifier.create(rewardQueryService.findRewards(null, null, last.receivedDate(), last.id(), 2))
+            .assertNext(reward -> assertEquals("Наставник", reward.rewardName()))
+            .assertNext(reward -> assertEquals(100L, reward.rewardId()))
+            .verifyComplete();
+        
+        StepVerifier.create(rewardQueryService.findRewards(
+                LocalDateTime.parse("2024-02-01T00:00:00"), LocalDateTime.parse("2024-03-01T12:00:00"), null, null, 10))
+            .assertNext(reward -> assertEquals(103L, reward.rewardId()))
+            .verifyComplete();
+        
+        StepVerifier.create(rewardQueryService.findAggregates(emp1Id, YearMonth.of(2024, 1), YearMonth.of(2024, 3)))
+            .assertNext(aggregate -> {
+                assertEquals(LocalDate.parse("2024-01-01"), aggregate.period());
+                assertEquals(101L, aggregate.rewardId());
+                assertEquals(1L, aggregate.rewardCount());
+            })
+            .assertNext(aggregate -> assertEquals(102L, aggregate.rewardId()))
+            .assertNext(aggregate -> {
+                assertEquals(LocalDate.parse("2024-02-01"), aggregate.period());
+                assertEquals("Наставник", aggregate.rewardName());
+            })
+            .verifyComplete();
     }
 }
-
@@ -0,0 +1,195 @@
+package org.example.reward.load;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.example.reward.cache.EmployeeIdCache;
+import org.example.reward.dto.RewardUploadResponse;
+import org.example.reward.support.RewardCsvGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Нагрузочный тест загрузки: несколько больших сгенерированных файлов одновременно отправляются
+ * в /api/rewards/upload через Reactor Netty, БД — PostgreSQL в Testcontainers.
+ *
+ * Не входит в ./gradlew test, запускается задачей ./gradlew loadTest. Параметры задаются
+ * системными свойствами: -Pload.rows=1000000 -Pload.uploads=8 -Pload.concurrency=4
+ * -Pload.employees=10000 -Pload.skew=1.5 -Pload.unknownRatio=0.01
+ *
+ * Пиковая куча измеряется в том же JVM, где работают и сервер, и генератор файлов.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.sql.init.mode=always",
+    "logging.level.org.example=INFO",
+    "logging.level.org.springframework.data.r2dbc=INFO"
+})
+@ActiveProfiles("test")
+@Testcontainers
+class RewardUploadLoadTest {
+    
+    private static final long ROWS = Long.getLong("load.rows", 200_000);
+    private static final int UPLOADS = Integer.getInteger("load.uploads", 8);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 4);
+    private static final int EMPLOYEES = Integer.getInteger("load.employees", 10_000);
+    private static final double SKEW = Double.parseDouble(System.getProperty("load.skew", "1.5"));
+    private static final double UNKNOWN_RATIO = Double.parseDouble(System.getProperty("load.unknownRatio", "0.01"));
+    
+    private static final int CHUNK_SIZE = 64 * 1024;
+    
+    /**
+     * Меньше замеров — и p99 по ближайшему рангу совпадает с максимумом, поэтому не выводится.
+     */
+    private static final int MIN_SAMPLES_FOR_P99 = 100;
+    
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("testdb")
+            .withUsername("postgres")
+            .withPassword("postgres");
+    
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () ->
+            String.format("r2dbc:postgresql://%s:%d/%s",
+                postgres.getHost(), postgres.getFirstMappedPort(), postgres.getDatabaseName()));
+        registry.add("spring.r2dbc.username", postgres::getUsername);
+        registry.add("spring.r2dbc.password", postgres::getPassword);
+    }
+    
+    @LocalServerPort
+    private int port;
+    
+    @Autowired
+    private ConnectionFactory connectionFactory;
+    
+    @Autowired
+    private EmployeeIdCache employeeIdCache;
+    
+    @BeforeEach
+    void setUp() {
+        DatabaseClient databaseClient = DatabaseClient.create(connectionFactory);
+        
+        databaseClient.sql("DELETE FROM rewards").fetch().rowsUpdated().block();
+        databaseClient.sql("DELETE FROM reward_aggregates").fetch().rowsUpdated().block();
+        databaseClient.sql("DELETE FROM upload_fingerprints").fetch().rowsUpdated().block();
+        databaseClient.sql("""
+            INSERT INTO employees (id, full_name)
+            SELECT g, 'Сотрудник ' || g FROM generate_series(1, $1) g
+            ON CONFLICT DO NOTHING
+            """)
+            .bind(0, EMPLOYEES)
+            .fetch().rowsUpdated().block();
+        
+        employeeIdCache.invalidate().block();
+    }
+    
+    @Test
+    void testUpload_LargeFilesConcurrently_ReportsLatencyAndThroughput() {
+        WebClient webClient = WebClient.create("http://localhost:" + port);
+        RewardCsvGenerator.Settings settings = new RewardCsvGenerator.Settings(
+            ROWS, EMPLOYEES, SKEW, UNKNOWN_RATIO, 0.0, 0);
+        
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        AtomicLong peakHeap = new AtomicLong();
+        Disposable heapSampler = Flux.interval(Duration.ofMillis(50))
+            .subscribe(tick -> peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max));
+        
+        long start = System.nanoTime();
+        List<UploadResult> results;
+        try {
+            // Разные seed: одинаковые файлы отсекались бы по отпечатку содержимого
+            results = Flux.range(0, UPLOADS)
+                .flatMap(upload -> upload(webClient, settings.withSeed(upload), upload), CONCURRENCY)
+                .collectList()
+                .block(Duration.ofHours(1));
+        } finally {
+            heapSampler.dispose();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        
+        assertNotNull(results);
+        assertEquals(UPLOADS, results.size());
+        results.forEach(result -> assertEquals(ROWS, result.response().totalRecords().longValue()));
+        
+        long[] latencies = results.stream().mapToLong(UploadResult::latencyMillis).sorted().toArray();
+        long savedRows = results.stream().mapToLong(result -> result.response().savedRecords()).sum();
+        String p99 = latencies.length >= MIN_SAMPLES_FOR_P99
+            ? String.format("p99 = %d мс, ", percentile(latencies, 99))
+            : "";
+        
+        System.out.printf("""
+            
+            === Нагрузочный тест /api/rewards/upload ===
+            Загрузок: %d по %d строк, одновременно: %d
+            Время: %.1f с, строк/с: %.0f (сохранено %d)
+            Задержка: p50 = %d мс, %smax = %d мс
+            Пиковая куча: %d МБ
+            %n""",
+            UPLOADS, ROWS, CONCURRENCY,
+            elapsedSeconds, UPLOADS * ROWS / elapsedSeconds, savedRows,
+            percentile(latencies, 50), p99, latencies[latencies.length - 1],
+            peakHeap.get() / (1024 * 1024));
+    }
+    
+    private Mono<UploadResult> upload(WebClient webClient, RewardCsvGenerator.Settings settings, int upload) {
+        return Mono.defer(() -> {
+            Flux<DataBuffer> content = RewardCsvGenerator.generate(
+                settings, DefaultDataBufferFactory.sharedInstance, CHUNK_SIZE);
+            
+            MultipartBodyBuilder body = new MultipartBodyBuilder();
+            body.asyncPart("file", content, DataBuffer.class)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "form-data; name=\"file\"; filename=\"load-" + upload + ".csv\"")
+                .contentType(MediaType.parseMediaType("text/csv"));
+            
+            long start = System.nanoTime();
+            return webClient.post()
+                .uri("/api/rewards/upload")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .accept(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromMultipartData(body.build()))
+                .retrieve()
+                .bodyToMono(RewardUploadResponse.class)
+                .map(response -> new UploadResult(response, (System.nanoTime() - start) / 1_000_000));
+        });
+    }
+    
+    /**
+     * Процентиль по методу ближайшего ранга.
+     */
+    private static long percentile(long[] sorted, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+    
+    private record UploadResult(RewardUploadResponse response, long latencyMillis) {
+    }
+}
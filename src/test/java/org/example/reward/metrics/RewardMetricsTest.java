@@ -0,0 +1,61 @@
+package org.example.reward.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.reward.exception.InvalidRecordException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RewardMetricsTest {
+    
+    private SimpleMeterRegistry registry;
+    
+    private RewardMetrics rewardMetrics;
+    
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        rewardMetrics = new RewardMetrics(registry);
+    }
+    
+    @Test
+    void testBatchSaved_CountsSavedAndDuplicateRecords() {
+        rewardMetrics.batchSaved(10, 7);
+        rewardMetrics.recordsSkipped(2);
+        
+        assertEquals(7, registry.get("rewards.records").tag("result", "saved").counter().count());
+        assertEquals(3, registry.get("rewards.records").tag("result", "duplicate").counter().count());
+        assertEquals(2, registry.get("rewards.records").tag("result", "skipped").counter().count());
+    }
+    
+    @Test
+    void testParseError_CountsByExceptionType() {
+        rewardMetrics.parseError(new InvalidRecordException("Строка 2: ошибка"));
+        rewardMetrics.parseError(new InvalidRecordException("Строка 3: ошибка"));
+        
+        assertEquals(2, registry.get("rewards.parse.errors").tag("type", "InvalidRecordException").counter().count());
+    }
+    
+    @Test
+    void testTrackUpload_InFlightWhileRunningAndTimedWithOutcome() {
+        Sinks.One<String> result = Sinks.one();
+        
+        StepVerifier.create(rewardMetrics.trackUpload(result.asMono()))
+            .then(() -> assertEquals(1, registry.get("rewards.uploads.in.flight").gauge().value()))
+            .then(() -> result.tryEmitValue("готово"))
+            .expectNext("готово")
+            .verifyComplete();
+        
+        assertEquals(0, registry.get("rewards.uploads.in.flight").gauge().value());
+        assertEquals(1, registry.get("rewards.upload").tag("outcome", "success").timer().count());
+        
+        StepVerifier.create(rewardMetrics.trackUpload(Mono.error(new IllegalStateException())))
+            .verifyError(IllegalStateException.class);
+        
+        assertEquals(1, registry.get("rewards.upload").tag("outcome", "error").timer().count());
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.reward.parser;
+
+import org.example.reward.exception.InvalidRecordException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvChunkSplitterTest {
+    
+    private static final String HEADER = "employeeId,employeeFullName,rewardId,rewardName,receivedDate\n";
+    
+    @Test
+    void testSplit_ChunksEndOnRecordBoundaries() {
+        String csv = HEADER
+            + "1,Иванов Иван,100,\"Многострочная\nнаграда\",2024-01-15T10:30:00\n"
+            + "2,Петров Петр,101,\"Награда \"\"Лучший\"\"\",2024-02-20T14:45:00\n"
+            + "3,Сидоров Сидор,102,Наставник,2024-03-01T09:00:00";
+        
+        List<CsvChunkSplitter.Chunk> chunks = split(csv.getBytes(StandardCharsets.UTF_8), 10, 7);
+        
+        assertEquals(4, chunks.size());
+        assertTrue(chunks.get(0).header());
+        assertEquals(HEADER, text(chunks.get(0)));
+        assertEquals(List.of(1L, 2L, 4L, 5L), chunks.stream().map(CsvChunkSplitter.Chunk::firstLine).toList());
+        assertTrue(text(chunks.get(1)).endsWith("награда\",2024-01-15T10:30:00\n"));
+        assertEquals("3,Сидоров Сидор,102,Наставник,2024-03-01T09:00:00", text(chunks.get(3)));
+        assertFalse(chunks.get(3).header());
+    }
+    
+    @Test
+    void testSplit_QuoteInsideUnquotedField_IsLiteral() {
+        String csv = HEADER
+            + "1,Иванов \"Иван,100,Награда,2024-01-15T10:30:00\n"
+            + "2,Петров Петр,101,Награда,2024-02-20T14:45:00\n";
+        
+        List<CsvChunkSplitter.Chunk> chunks = split(csv.getBytes(StandardCharsets.UTF_8), 1, Integer.MAX_VALUE);
+        
+        assertEquals(3, chunks.size());
+        assertEquals(3L, chunks.get(2).firstLine());
+    }
+    
+    @Test
+    void testSplit_EmptyInput_EmitsHeaderChunk() {
+        List<CsvChunkSplitter.Chunk> chunks = split(new byte[0], 16, 1);
+        
+        assertEquals(1, chunks.size());
+        assertTrue(chunks.get(0).header());
+        assertEquals(0, chunks.get(0).length());
+    }
+    
+    @Test
+    void testSplit_UnclosedQuote_FailsOnRecordLengthLimit() {
+        CsvChunkSplitter splitter = new CsvChunkSplitter(1024);
+        List<CsvChunkSplitter.Chunk> chunks = new ArrayList<>();
+        splitter.feed(ByteBuffer.wrap((HEADER + "1,\"Иванов").getBytes(StandardCharsets.UTF_8)), chunks);
+        byte[] filler = new byte[RewardCsvParser.MAX_ROW_BYTES];
+        
+        InvalidRecordException e = assertThrows(InvalidRecordException.class, () -> {
+            for (int i = 0; i < 3; i++) {
+                splitter.feed(ByteBuffer.wrap(filler), chunks);
+            }
+        });
+        assertTrue(e.getMessage().startsWith("Строка 2:"));
+    }
+    
+    private static List<CsvChunkSplitter.Chunk> split(byte[] bytes, int chunkSize, int feedSize) {
+        CsvChunkSplitter splitter = new CsvChunkSplitter(chunkSize);
+        List<CsvChunkSplitter.Chunk> chunks = new ArrayList<>();
+        for (int offset = 0; offset < bytes.length; offset += feedSize) {
+            int length = Math.min(feedSize, bytes.length - offset);
+            splitter.feed(ByteBuffer.wrap(bytes, offset, length), chunks);
+        }
+        splitter.finish(chunks);
+        return chunks;
+    }
+    
+    private static String text(CsvChunkSplitter.Chunk chunk) {
+        return new String(chunk.bytes(), 0, chunk.length(), StandardCharsets.UTF_8);
+    }
+}
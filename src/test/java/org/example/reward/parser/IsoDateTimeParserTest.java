@@ -0,0 +1,127 @@
+package org.example.reward.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IsoDateTimeParserTest {
+    
+    private static final String SYMBOLS = "0123456789-:T.tZ+ ";
+    
+    @Test
+    void testParse_CommonLayouts_UseFastPath() {
+        IsoDateTimeParser parser = new IsoDateTimeParser();
+        
+        assertEquals(LocalDateTime.parse("2024-01-15T10:30"), fastPath(parser, "2024-01-15T10:30"));
+        assertEquals(LocalDateTime.parse("2024-01-15T10:30:45"), fastPath(parser, "2024-01-15T10:30:45"));
+        assertEquals(LocalDateTime.parse("2024-01-15T10:30:45.5"), fastPath(parser, "2024-01-15T10:30:45.5"));
+        assertEquals(LocalDateTime.parse("2024-02-29T23:59:59.123456789"),
+            fastPath(parser, "2024-02-29T23:59:59.123456789"));
+        assertNull(fastPath(parser, "2023-02-29T10:30:00"));
+        assertNull(fastPath(parser, "2024-01-15T10:30:00Z"));
+    }
+    
+    @Test
+    void testParse_RepeatedValue_ReturnsCachedInstance() {
+        IsoDateTimeParser parser = new IsoDateTimeParser();
+        
+        LocalDateTime first = parse(parser, "2024-01-15T10:30:00");
+        parser.parse(bytes("2024-01-16T10:30:00"), 0, 19);
+        
+        assertSame(first, parse(parser, "2024-01-15T10:30:00"));
+    }
+    
+    @Test
+    void testParse_RandomValidValues_SameAsDateTimeFormatter() {
+        Random random = new Random(20240115);
+        IsoDateTimeParser parser = new IsoDateTimeParser();
+        for (int i = 0; i < 100_000; i++) {
+            LocalDateTime dateTime = LocalDateTime.of(random.nextInt(10_000), 1 + random.nextInt(12), 1,
+                    random.nextInt(24), random.nextInt(60), random.nextInt(60))
+                .plusDays(random.nextInt(31));
+            String value = switch (random.nextInt(4)) {
+                case 0 -> String.format("%04d-%02d-%02dT%02d:%02d", dateTime.getYear(), dateTime.getMonthValue(),
+                    dateTime.getDayOfMonth(), dateTime.getHour(), dateTime.getMinute());
+                case 1 -> format(dateTime);
+                default -> format(dateTime) + "." + randomDigits(random, 1 + random.nextInt(9));
+            };
+            
+            assertSameResult(parser, value);
+        }
+    }
+    
+    @Test
+    void testParse_RandomMutatedValues_SameAsDateTimeFormatter() {
+        Random random = new Random(42);
+        IsoDateTimeParser parser = new IsoDateTimeParser();
+        String[] samples = {"2024-01-15T10:30", "2024-02-29T23:59:59", "2023-12-31T00:00:00.000000001"};
+        for (int i = 0; i < 200_000; i++) {
+            StringBuilder value = new StringBuilder(samples[random.nextInt(samples.length)]);
+            int mutations = 1 + random.nextInt(3);
+            for (int m = 0; m < mutations; m++) {
+                int position = random.nextInt(value.length() + 1);
+                char symbol = SYMBOLS.charAt(random.nextInt(SYMBOLS.length()));
+                switch (random.nextInt(3)) {
+                    case 0 -> value.insert(position, symbol);
+                    case 1 -> {
+                        if (position < value.length()) {
+                            value.deleteCharAt(position);
+                        }
+                    }
+                    default -> {
+                        if (position < value.length()) {
+                            value.setCharAt(position, symbol);
+                        }
+                    }
+                }
+            }
+            
+            assertSameResult(parser, value.toString());
+        }
+    }
+    
+    private static void assertSameResult(IsoDateTimeParser parser, String value) {
+        LocalDateTime expected;
+        try {
+            expected = LocalDateTime.parse(value, DateTimeFormatter.ISO_DATE_TIME);
+        } catch (DateTimeParseException e) {
+            assertThrows(DateTimeParseException.class, () -> parse(parser, value), value);
+            return;
+        }
+        assertEquals(expected, parse(parser, value), value);
+    }
+    
+    private static LocalDateTime parse(IsoDateTimeParser parser, String value) {
+        // Значение в середине массива: разбор должен учитывать смещение
+        byte[] bytes = bytes("##" + value + "##");
+        return parser.parse(bytes, 2, bytes.length - 2);
+    }
+    
+    private static LocalDateTime fastPath(IsoDateTimeParser parser, String value) {
+        byte[] bytes = bytes(value);
+        return parser.parseFixedLayout(bytes, 0, bytes.length);
+    }
+    
+    private static String format(LocalDateTime dateTime) {
+        return String.format("%04d-%02d-%02dT%02d:%02d:%02d", dateTime.getYear(), dateTime.getMonthValue(),
+            dateTime.getDayOfMonth(), dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond());
+    }
+    
+    private static String randomDigits(Random random, int count) {
+        StringBuilder digits = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            digits.append((char) ('0' + random.nextInt(10)));
+        }
+        return digits.toString();
+    }
+    
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
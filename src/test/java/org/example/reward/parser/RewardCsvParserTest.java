@@ -0,0 +1,125 @@
+package org.example.reward.parser;
+
+import org.example.reward.dto.RejectedRecord;
+import org.example.reward.dto.RewardRecord;
+import org.example.reward.exception.InvalidFileFormatException;
+import org.example.reward.exception.InvalidRecordException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RewardCsvParserTest {
+    
+    private static final String HEADER = "employeeId,employeeFullName,rewardId,rewardName,receivedDate\r\n";
+    
+    @Test
+    void testParse_QuotedFieldsAndCrlf() {
+        String csv = HEADER
+            + "1,\"Иванов, Иван\",100,\"Награда \"\"Лучший\"\"\",2024-01-15T10:30:00\r\n"
+            + "2,Петров Петр,101,\"Многострочная\nнаграда\",2024-02-20T14:45:00";
+        
+        List<RewardRecord> records = parse(csv.getBytes(StandardCharsets.UTF_8), Integer.MAX_VALUE);
+        
+        assertEquals(2, records.size());
+        assertEquals("Иванов, Иван", records.get(0).employeeFullName());
+        assertEquals("Награда \"Лучший\"", records.get(0).rewardName());
+        assertEquals(2L, records.get(1).employeeId());
+        assertEquals("Многострочная\nнаграда", records.get(1).rewardName());
+        assertEquals(LocalDateTime.parse("2024-02-20T14:45:00"), records.get(1).receivedDate());
+    }
+    
+    @Test
+    void testParse_ByteByByteChunks_SameResult() {
+        String csv = HEADER
+            + "1,Иванов Иван Иванович,100,\"Лучший, сотрудник\",2024-01-15T10:30:00\r\n"
+            + "\r\n"
+            + "2,Петров Петр Петрович,101,За отличную работу,2024-02-20T14:45:00\r\n";
+        byte[] bytes = csv.getBytes(StandardCharsets.UTF_8);
+        
+        assertEquals(parse(bytes, Integer.MAX_VALUE), parse(bytes, 1));
+        assertEquals(2, parse(bytes, 3).size());
+    }
+    
+    @Test
+    void testParse_InvalidRecord_ReportsLineNumber() {
+        String csv = HEADER
+            + "1,Иванов Иван Иванович,100,Лучший сотрудник,2024-01-15T10:30:00\n"
+            + "1x,Петров Петр Петрович,101,За отличную работу,2024-02-20T14:45:00\n";
+        
+        InvalidRecordException e = assertThrows(InvalidRecordException.class,
+            () -> parse(csv.getBytes(StandardCharsets.UTF_8), 7));
+        
+        assertTrue(e.getMessage().contains("Строка 3"));
+        assertTrue(e.getMessage().contains("employeeId"));
+    }
+    
+    @Test
+    void testParse_Lenient_CollectsInvalidRowsAndContinues() {
+        String csv = HEADER
+            + "1x,Петров Петр Петрович,101,За отличную работу,2024-02-20T14:45:00\n"
+            + "1,Иванов Иван Иванович,100,\"Лучший, сотрудник\",15.01.2024\n"
+            + "2,Сидоров Сидор\n"
+            + "3,Козлова Анна Сергеевна,102,Наставник,2024-03-01T09:00:00\n";
+        List<RejectedRecord> rejects = new ArrayList<>();
+        RewardCsvParser parser = new RewardCsvParser(true, 1, rejects::add);
+        List<RewardRecord> records = new ArrayList<>();
+        
+        parser.feed(ByteBuffer.wrap(csv.getBytes(StandardCharsets.UTF_8)), records);
+        parser.finish(records);
+        
+        assertEquals(1, records.size());
+        assertEquals(3L, records.get(0).employeeId());
+        assertEquals(List.of(2L, 3L, 4L), rejects.stream().map(RejectedRecord::lineNumber).toList());
+        assertTrue(rejects.get(0).reason().contains("employeeId"));
+        assertFalse(rejects.get(0).reason().startsWith("Строка"));
+        assertEquals("1,Иванов Иван Иванович,100,\"Лучший, сотрудник\",15.01.2024", rejects.get(1).content());
+    }
+    
+    @Test
+    void testParse_RepeatedRewardNames_ShareOneInstance() {
+        String longName = "Награда ".repeat(40).trim();
+        String csv = HEADER
+            + "1,Иванов Иван,100,Лучший сотрудник,2024-01-15T10:30:00\n"
+            + "2,Петров Петр,100, \"Лучший сотрудник\" ,2024-02-20T14:45:00\n"
+            + "3,Сидоров Сидор,101,Инноватор года,2024-03-01T12:00:00\n"
+            + "4,Иванов Иван,100,Лучший сотрудник,2024-04-01T12:00:00\n"
+            + "5,Иванов Иван,102," + longName + ",2024-05-01T12:00:00\n";
+        
+        List<RewardRecord> records = parse(csv.getBytes(StandardCharsets.UTF_8), 5);
+        
+        assertEquals("Лучший сотрудник", records.get(0).rewardName());
+        assertSame(records.get(0).rewardName(), records.get(1).rewardName());
+        assertSame(records.get(0).rewardName(), records.get(3).rewardName());
+        assertEquals("Инноватор года", records.get(2).rewardName());
+        assertEquals(longName, records.get(4).rewardName());
+    }
+    
+    @Test
+    void testParse_EmptyInput_ThrowsFileFormatError() {
+        assertThrows(InvalidFileFormatException.class, () -> parse(new byte[0], 1));
+    }
+    
+    @Test
+    void testParse_UnclosedQuote_ThrowsRecordError() {
+        String csv = HEADER + "1,\"Иванов Иван Иванович,100,Лучший сотрудник,2024-01-15T10:30:00\n";
+        
+        assertThrows(InvalidRecordException.class, () -> parse(csv.getBytes(StandardCharsets.UTF_8), 16));
+    }
+    
+    private List<RewardRecord> parse(byte[] bytes, int chunkSize) {
+        RewardCsvParser parser = new RewardCsvParser();
+        List<RewardRecord> records = new ArrayList<>();
+        for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+            int length = Math.min(chunkSize, bytes.length - offset);
+            parser.feed(ByteBuffer.wrap(bytes, offset, length), records);
+        }
+        parser.finish(records);
+        return records;
+    }
+}
@@ -1,18 +1,32 @@
 package org.example.reward.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.reward.binary.CsvToBinaryConverter;
+import org.example.reward.config.RewardProperties;
+import org.example.reward.dto.RejectedRecord;
 import org.example.reward.dto.RewardRecord;
 import org.example.reward.exception.InvalidFileFormatException;
 import org.example.reward.exception.InvalidRecordException;
+import org.example.reward.metrics.RewardMetrics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class CsvParserServiceTest {
     
@@ -20,7 +34,7 @@ class CsvParserServiceTest {
     
     @BeforeEach
     void setUp() {
-        csvParserService = new CsvParserService();
+        csvParserService = new CsvParserService(RewardMetrics.noop(), new RewardProperties());
     }
     
     @Test
@@ -135,5 +149,131 @@ class CsvParserServiceTest {
             )
             .verify();
     }
+    
+    @Test
+    void testParseCsv_NoTrailingNewline_CountsLastRow() {
+        byte[] single = """
+            employeeId,employeeFullName,rewardId,rewardName,receivedDate
+            1,Иванов Иван,100,Награда,2024-01-15T10:30:00""".getBytes(StandardCharsets.UTF_8);
+        byte[] several = """
+            employeeId,employeeFullName,rewardId,rewardName,receivedDate
+            1,Иванов Иван,100,Награда,2024-01-15T10:30:00
+            2,Петров Петр,100,Награда,2024-01-15T10:30:00""".getBytes(StandardCharsets.UTF_8);
+        
+        for (int parallelism : new int[] {1, 4}) {
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            RewardProperties properties = new RewardProperties();
+            properties.getParser().setParallelism(parallelism);
+            CsvParserService service = new CsvParserService(new RewardMetrics(registry), properties);
+            
+            assertEquals(1, service.parseCsv(content(single, 16)).count().block());
+            assertEquals(2, service.parseCsv(content(several, 16)).count().block());
+            assertEquals(3.0, registry.get("rewards.parse.rows").counter().count(), "parallelism " + parallelism);
+        }
+    }
+    
+    @Test
+    void testParseCsvParallel_SameRecordsInFileOrder() {
+        StringBuilder csv = new StringBuilder("employeeId,employeeFullName,rewardId,rewardName,receivedDate\r\n");
+        for (int i = 1; i <= 500; i++) {
+            csv.append(i).append(",\"Иванов,\nИван\",").append(100 + i % 5)
+                .append(",\"Награда \"\"Лучший\"\"\",2024-01-15T10:30:00\r\n");
+        }
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        
+        List<RewardRecord> sequential = parser(1).parseCsv(content(bytes, 100)).collectList().block();
+        List<RewardRecord> parallel = parser(4).parseCsv(content(bytes, 100)).collectList().block();
+        
+        assertEquals(500, sequential.size());
+        assertEquals(sequential, parallel);
+    }
+    
+    @Test
+    void testParseCsvParallel_InvalidRecord_ReportsOriginalLineNumber() {
+        StringBuilder csv = new StringBuilder("employeeId,employeeFullName,rewardId,rewardName,receivedDate\n");
+        for (int i = 1; i <= 200; i++) {
+            // Каждая запись занимает две строки файла
+            csv.append(i == 150 ? "x" : "").append(i).append(",\"Иванов\nИван\",100,Награда,2024-01-15T10:30:00\n");
+        }
+        
+        StepVerifier.create(parser(4).parseCsv(content(csv.toString().getBytes(StandardCharsets.UTF_8), 64)))
+            .expectNextCount(149)
+            .expectErrorMatches(throwable ->
+                throwable instanceof InvalidRecordException &&
+                throwable.getMessage().startsWith("Строка 300:")
+            )
+            .verify();
+    }
+    
+    @Test
+    void testParseCsvSequential_InvalidRecord_EmitsRecordsBeforeErrorFromSameBuffer() {
+        String csv = """
+            employeeId,employeeFullName,rewardId,rewardName,receivedDate
+            1,Иванов Иван,100,Награда,2024-01-15T10:30:00
+            2,Петров Петр,100,Награда,2024-01-15T10:30:00
+            x,Сидоров Сидор,100,Награда,2024-01-15T10:30:00
+            """;
+        byte[] bytes = csv.getBytes(StandardCharsets.UTF_8);
+        
+        // Весь файл в одном буфере: записи до ошибочной строки не теряются
+        StepVerifier.create(parser(1).parseCsv(content(bytes, bytes.length)))
+            .expectNextCount(2)
+            .expectErrorMatches(throwable ->
+                throwable instanceof InvalidRecordException &&
+                throwable.getMessage().startsWith("Строка 4:")
+            )
+            .verify();
+    }
+    
+    @Test
+    void testParseCsvParallel_Lenient_RejectsInFileOrder() {
+        StringBuilder csv = new StringBuilder("employeeId,employeeFullName,rewardId,rewardName,receivedDate\n");
+        for (int i = 1; i <= 200; i++) {
+            csv.append(i).append(",Иванов Иван,100,Награда,").append(i % 50 == 0 ? "15.01.2024" : "2024-01-15T10:30:00")
+                .append('\n');
+        }
+        List<RejectedRecord> rejects = new ArrayList<>();
+        
+        StepVerifier.create(parser(4).parseCsv(content(csv.toString().getBytes(StandardCharsets.UTF_8), 64), rejects::add))
+            .expectNextCount(196)
+            .verifyComplete();
+        
+        assertEquals(List.of(51L, 101L, 151L, 201L), rejects.stream().map(RejectedRecord::lineNumber).toList());
+        assertTrue(rejects.get(0).reason().contains("Неверный формат даты"));
+    }
+    
+    @Test
+    void testParseFile_BinaryFile_SameRecordsAsCsv() throws Exception {
+        byte[] csv = """
+            employeeId,employeeFullName,rewardId,rewardName,receivedDate
+            1,Иванов Иван Иванович,100,Лучший сотрудник,2024-01-15T10:30:00
+            2,Петров Петр Петрович,101,"За отличную, работу",2024-02-20T14:45:00.250
+            """.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        CsvToBinaryConverter.convert(new ByteArrayInputStream(csv), binary);
+        
+        List<RewardRecord> fromCsv = csvParserService.parseFile("rewards.csv", content(csv, 16), null)
+            .collectList().block();
+        List<RewardRecord> fromBinary = csvParserService.parseFile("rewards.rwb", content(binary.toByteArray(), 16), null)
+            .collectList().block();
+        
+        assertEquals(2, fromCsv.size());
+        assertEquals(fromCsv, fromBinary);
+    }
+    
+    private static CsvParserService parser(int parallelism) {
+        RewardProperties properties = new RewardProperties();
+        properties.getParser().setParallelism(parallelism);
+        properties.getParser().setChunkSize(DataSize.ofBytes(256));
+        return new CsvParserService(RewardMetrics.noop(), properties);
+    }
+    
+    private static Flux<DataBuffer> content(byte[] bytes, int chunkSize) {
+        return Flux.range(0, (bytes.length + chunkSize - 1) / chunkSize)
+            .map(chunk -> {
+                int offset = chunk * chunkSize;
+                int length = Math.min(chunkSize, bytes.length - offset);
+                return DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(bytes, offset, length));
+            });
+    }
 }
-
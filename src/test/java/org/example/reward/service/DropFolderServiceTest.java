@@ -0,0 +1,149 @@
+package org.example.reward.service;
+
+import org.example.reward.config.RewardProperties;
+import org.example.reward.dto.RewardRecord;
+import org.example.reward.entity.UploadJob;
+import org.example.reward.entity.UploadJobStatus;
+import org.example.reward.metrics.RewardMetrics;
+import org.example.reward.repository.UploadJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DropFolderServiceTest {
+    
+    private static final String CSV_CONTENT = """
+        employeeId,employeeFullName,rewardId,rewardName,receivedDate
+        1,Иванов Иван Иванович,100,Лучший сотрудник,2024-01-15T10:30:00
+        """;
+    
+    @Mock
+    private RewardService rewardService;
+    
+    @Mock
+    private UploadJobRepository uploadJobRepository;
+    
+    @TempDir
+    Path dir;
+    
+    private DropFolderService dropFolderService;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        RewardProperties properties = new RewardProperties();
+        properties.getDropFolder().setEnabled(true);
+        properties.getDropFolder().setDir(dir);
+        properties.getDropFolder().setSettleTime(Duration.ofMillis(20));
+        for (String subdir : new String[] {DropFolderService.PROCESSING_DIR, DropFolderService.DONE_DIR,
+            DropFolderService.FAILED_DIR}) {
+            Files.createDirectories(dir.resolve(subdir));
+        }
+        
+        dropFolderService = new DropFolderService(new CsvParserService(RewardMetrics.noop(), properties),
+            rewardService, uploadJobRepository, properties);
+        
+        lenient().when(uploadJobRepository.save(any(UploadJob.class))).thenAnswer(invocation -> {
+            UploadJob job = invocation.getArgument(0);
+            if (job.getId() == null) {
+                job.setId(7L);
+            }
+            return Mono.just(job);
+        });
+    }
+    
+    @AfterEach
+    void tearDown() throws Exception {
+        dropFolderService.shutdown();
+    }
+    
+    @Test
+    void testProcess_ValidFile_MovesToDoneAndRecordsCompletedJob() throws Exception {
+        Path file = Files.writeString(dir.resolve("rewards.csv"), CSV_CONTENT, StandardCharsets.UTF_8);
+        when(rewardService.processRewards(any(), any(UploadProgress.class))).thenAnswer(invocation -> {
+            Flux<RewardRecord> records = invocation.getArgument(0);
+            UploadProgress progress = invocation.getArgument(1);
+            return records.doOnNext(record -> progress.recordReceived())
+                .then(Mono.fromSupplier(progress::toResponse));
+        });
+        
+        StepVerifier.create(dropFolderService.process(file))
+            .verifyComplete();
+        
+        assertFalse(Files.exists(file));
+        assertTrue(Files.exists(dir.resolve(DropFolderService.DONE_DIR).resolve("7-rewards.csv")));
+        verify(uploadJobRepository, atLeastOnce()).save(argThat(job ->
+            job.getStatus() == UploadJobStatus.COMPLETED && job.getTotalRecords() == 1));
+    }
+    
+    @Test
+    void testProcess_ProcessingFails_MovesToFailedAndRecordsError() throws Exception {
+        Path file = Files.writeString(dir.resolve("rewards.csv"), CSV_CONTENT, StandardCharsets.UTF_8);
+        when(rewardService.processRewards(any(), any(UploadProgress.class)))
+            .thenReturn(Mono.error(new RuntimeException("БД недоступна")));
+        
+        StepVerifier.create(dropFolderService.process(file))
+            .verifyComplete();
+        
+        assertTrue(Files.exists(dir.resolve(DropFolderService.FAILED_DIR).resolve("7-rewards.csv")));
+        verify(uploadJobRepository, atLeastOnce()).save(argThat(job ->
+            job.getStatus() == UploadJobStatus.FAILED && "БД недоступна".equals(job.getMessage())));
+    }
+    
+    @Test
+    void testProcess_FileAlreadyTaken_DoesNothing() {
+        StepVerifier.create(dropFolderService.process(dir.resolve("missing.csv")))
+            .verifyComplete();
+        
+        verifyNoInteractions(uploadJobRepository, rewardService);
+    }
+    
+    @Test
+    void testStart_ProcessesExistingAndInterruptedFiles() throws Exception {
+        Files.writeString(dir.resolve("first.csv"), CSV_CONTENT, StandardCharsets.UTF_8);
+        Files.writeString(dir.resolve(DropFolderService.PROCESSING_DIR).resolve("second.csv"), CSV_CONTENT,
+            StandardCharsets.UTF_8);
+        Files.writeString(dir.resolve("notes.txt"), "не CSV", StandardCharsets.UTF_8);
+        when(uploadJobRepository.failInterruptedDropFolderJobs(any(), any())).thenReturn(Mono.just(1));
+        when(rewardService.processRewards(any(), any(UploadProgress.class))).thenAnswer(invocation -> {
+            Flux<RewardRecord> records = invocation.getArgument(0);
+            UploadProgress progress = invocation.getArgument(1);
+            return records.then(Mono.fromSupplier(progress::toResponse));
+        });
+        
+        dropFolderService.start();
+        
+        Path done = dir.resolve(DropFolderService.DONE_DIR);
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (countFiles(done) < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(2, countFiles(done));
+        assertTrue(Files.exists(dir.resolve("notes.txt")));
+        verify(uploadJobRepository).failInterruptedDropFolderJobs(eq(DropFolderService.INTERRUPTED_MESSAGE), any());
+    }
+    
+    private static long countFiles(Path dir) throws Exception {
+        try (var files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.reward.service;
+
+import org.example.reward.config.RewardProperties;
+import org.example.reward.dto.RewardRecord;
+import org.example.reward.exception.InvalidIngestPathException;
+import org.example.reward.metrics.RewardMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LocalFileIngestServiceTest {
+    
+    @Mock
+    private RewardService rewardService;
+    
+    @TempDir
+    Path baseDir;
+    
+    private RewardProperties properties;
+    
+    private LocalFileIngestService localFileIngestService;
+    
+    @BeforeEach
+    void setUp() {
+        properties = new RewardProperties();
+        properties.getParser().setParallelism(1);
+        properties.getIngest().setBaseDir(baseDir);
+        // Маленькие участки, чтобы строки разрывались между отображениями
+        properties.getIngest().setMapSize(DataSize.ofBytes(16));
+        
+        localFileIngestService = new LocalFileIngestService(
+            new CsvParserService(RewardMetrics.noop(), properties), rewardService, RewardMetrics.noop(), properties);
+    }
+    
+    @Test
+    void testIngest_FileInBaseDir_ProcessesRecords() throws Exception {
+        Files.createDirectories(baseDir.resolve("exports"));
+        Files.writeString(baseDir.resolve("exports/rewards.csv"), """
+            employeeId,employeeFullName,rewardId,rewardName,receivedDate
+            1,Иванов Иван Иванович,100,Лучший сотрудник,2024-01-15T10:30:00
+            2,Петров Петр Петрович,101,"За отличную, работу",2024-02-20T14:45:00
+            """, StandardCharsets.UTF_8);
+        
+        when(rewardService.processRewards(any(), any(UploadProgress.class))).thenAnswer(invocation -> {
+            Flux<RewardRecord> records = invocation.getArgument(0);
+            UploadProgress progress = invocation.getArgument(1);
+            return records.doOnNext(record -> progress.recordReceived())
+                .then(Mono.fromSupplier(progress::toResponse));
+        });
+        
+        StepVerifier.create(localFileIngestService.ingest("exports/rewards.csv", false))
+            .assertNext(response -> assertEquals(2, response.totalRecords()))
+            .verifyComplete();
+    }
+    
+    @Test
+    void testIngest_GzipFile_DecompressesAndProcessesRecords() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write("""
+                employeeId,employeeFullName,rewardId,rewardName,receivedDate
+                1,Иванов Иван Иванович,100,Лучший сотрудник,2024-01-15T10:30:00
+                2,Петров Петр Петрович,101,Инноватор года,2024-02-20T14:45:00
+                """.getBytes(StandardCharsets.UTF_8));
+        }
+        Files.write(baseDir.resolve("rewards.csv.gz"), compressed.toByteArray());
+        
+        when(rewardService.processRewards(any(), any(UploadProgress.class))).thenAnswer(invocation -> {
+            Flux<RewardRecord> records = invocation.getArgument(0);
+            UploadProgress progress = invocation.getArgument(1);
+            return records.doOnNext(record -> progress.recordReceived())
+                .then(Mono.fromSupplier(progress::toResponse));
+        });
+        
+        StepVerifier.create(localFileIngestService.ingest("rewards.csv.gz", false))
+            .assertNext(response -> assertEquals(2, response.totalRecords()))
+            .verifyComplete();
+    }
+    
+    @Test
+    void testIngest_PathOutsideBaseDir_ReturnsError() throws Exception {
+        Path outside = Files.createTempFile("rewards", ".csv");
+        try {
+            StepVerifier.create(localFileIngestService.ingest("../" + outside.getFileName(), false))
+                .expectError(InvalidIngestPathException.class)
+                .verify();
+            StepVerifier.create(localFileIngestService.ingest(outside.toString(), false))
+                .expectError(InvalidIngestPathException.class)
+                .verify();
+        } finally {
+            Files.deleteIfExists(outside);
+        }
+        
+        verifyNoInteractions(rewardService);
+    }
+    
+    @Test
+    void testIngest_BaseDirNotConfigured_ReturnsError() {
+        properties.getIngest().setBaseDir(null);
+        
+        StepVerifier.create(localFileIngestService.ingest("rewards.csv", false))
+            .expectErrorMatches(throwable ->
+                throwable instanceof InvalidIngestPathException &&
+                throwable.getMessage().contains("отключена")
+            )
+            .verify();
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.reward.service;
+
+import org.example.reward.cache.RewardQueryCache;
+import org.example.reward.config.RewardProperties;
+import org.example.reward.dto.RewardAggregateView;
+import org.example.reward.dto.RewardView;
+import org.example.reward.exception.InvalidQueryParameterException;
+import org.example.reward.metrics.RewardMetrics;
+import org.example.reward.repository.RewardAggregateRepository;
+import org.example.reward.repository.RewardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RewardQueryServiceTest {
+    
+    private static final LocalDateTime FROM = LocalDateTime.parse("2024-01-01T00:00:00");
+    private static final LocalDateTime TO = LocalDateTime.parse("2024-02-01T00:00:00");
+    
+    @Mock
+    private RewardRepository rewardRepository;
+    
+    @Mock
+    private RewardAggregateRepository rewardAggregateRepository;
+    
+    private RewardQueryService rewardQueryService;
+    
+    @BeforeEach
+    void setUp() {
+        RewardProperties properties = new RewardProperties();
+        properties.getQuery().setDefaultPageSize(50);
+        properties.getQuery().setMaxPageSize(500);
+        rewardQueryService = new RewardQueryService(rewardRepository,
+            new RewardQueryCache(rewardRepository, properties, RewardMetrics.noop()), rewardAggregateRepository, properties);
+    }
+    
+    @Test
+    void testFindRewards_NoCursor_StartsFromPeriodStart() {
+        RewardView reward = new RewardView(1L, 1L, 100L, "Лучший сотрудник", FROM);
+        when(rewardRepository.findPage(FROM, 0L, TO, 50)).thenReturn(Flux.just(reward));
+        
+        StepVerifier.create(rewardQueryService.findRewards(FROM, TO, null, null, null))
+            .expectNext(reward)
+            .verifyComplete();
+    }
+    
+    @Test
+    void testFindRewards_Unbounded_UsesTimestampRange() {
+        when(rewardRepository.findPage(RewardQueryService.UNBOUNDED_FROM, 0L, RewardQueryService.UNBOUNDED_TO, 10))
+            .thenReturn(Flux.empty());
+        
+        StepVerifier.create(rewardQueryService.findRewards(null, null, null, null, 10))
+            .verifyComplete();
+    }
+    
+    @Test
+    void testFindEmployeeRewards_Cursor_SeeksAfterCursor() {
+        LocalDateTime afterDate = LocalDateTime.parse("2024-01-15T10:30:00");
+        when(rewardRepository.findEmployeePage(7L, afterDate, 42L, TO, 50)).thenReturn(Flux.empty());
+        
+        StepVerifier.create(rewardQueryService.findEmployeeRewards(7L, FROM, TO, afterDate, 42L, null))
+            .verifyComplete();
+        
+        // курсор до начала периода заменяется началом периода
+        when(rewardRepository.findEmployeePage(7L, FROM, 0L, TO, 50)).thenReturn(Flux.empty());
+        
+        StepVerifier.create(rewardQueryService.findEmployeeRewards(7L, FROM, TO, FROM.minusDays(1), 42L, null))
+            .verifyComplete();
+    }
+    
+    @Test
+    void testFindAggregates_MonthRange_QueriesFirstDaysOfMonths() {
+        RewardAggregateView aggregate = new RewardAggregateView(7L, LocalDate.parse("2024-01-01"), 100L, "Лучший сотрудник", 3L);
+        when(rewardAggregateRepository.findByEmployee(7L, LocalDate.parse("2024-01-01"), LocalDate.parse("2024-03-01")))
+            .thenReturn(Flux.just(aggregate));
+        when(rewardAggregateRepository.findAll(LocalDate.parse("2024-01-01"), RewardQueryService.UNBOUNDED_TO.toLocalDate()))
+            .thenReturn(Flux.empty());
+        
+        StepVerifier.create(rewardQueryService.findAggregates(7L, YearMonth.of(2024, 1), YearMonth.of(2024, 3)))
+            .expectNext(aggregate)
+            .verifyComplete();
+        StepVerifier.create(rewardQueryService.findAggregates(null, YearMonth.of(2024, 1), null))
+            .verifyComplete();
+        StepVerifier.create(rewardQueryService.findAggregates(null, YearMonth.of(2024, 3), YearMonth.of(2024, 3)))
+            .expectError(InvalidQueryParameterException.class)
+            .verify();
+    }
+    
+    @Test
+    void testFindRewards_InvalidParameters_ReturnsError() {
+        StepVerifier.create(rewardQueryService.findRewards(FROM, TO, null, null, 501))
+            .expectError(InvalidQueryParameterException.class)
+            .verify();
+        StepVerifier.create(rewardQueryService.findRewards(FROM, TO, null, null, 0))
+            .expectError(InvalidQueryParameterException.class)
+            .verify();
+        StepVerifier.create(rewardQueryService.findRewards(FROM, TO, FROM, null, null))
+            .expectError(InvalidQueryParameterException.class)
+            .verify();
+        StepVerifier.create(rewardQueryService.findRewards(TO, FROM, null, null, null))
+            .expectError(InvalidQueryParameterException.class)
+            .verify();
+        
+        verify(rewardRepository, never()).findPage(any(), anyLong(), any(), anyInt());
+    }
+}
@@ -1,25 +1,43 @@
 package org.example.reward.service;
 
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import org.example.reward.cache.EmployeeIdCache;
+import org.example.reward.cache.RewardTypeCatalog;
+import org.example.reward.config.RewardProperties;
 import org.example.reward.dto.RewardRecord;
-import org.example.reward.entity.Employee;
-import org.example.reward.entity.Reward;
+import org.example.reward.metrics.RewardMetrics;
 import org.example.reward.repository.EmployeeRepository;
-import org.example.reward.repository.RewardRepository;
+import org.example.reward.repository.RewardBatchRepository;
+import org.example.reward.repository.RewardTypeRepository;
+import org.example.reward.repository.UploadCheckpointRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,16 +47,34 @@ class RewardServiceTest {
     private EmployeeRepository employeeRepository;
     
     @Mock
-    private RewardRepository rewardRepository;
+    private RewardBatchRepository rewardBatchRepository;
+    
+    @Mock
+    private RewardTypeRepository rewardTypeRepository;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Mock
+    private UploadCheckpointRepository uploadCheckpointRepository;
+    
+    @Mock
+    private TransactionalOperator transactionalOperator;
     
-    @InjectMocks
     private RewardService rewardService;
     
     private RewardRecord validRecord;
-    private Reward savedReward;
     
     @BeforeEach
     void setUp() {
+        RewardProperties properties = new RewardProperties();
+        rewardService = new RewardService(
+            new EmployeeIdCache(employeeRepository, properties), new RewardTypeCatalog(rewardTypeRepository),
+            rewardBatchRepository, properties, RewardMetrics.noop(), eventPublisher, uploadCheckpointRepository,
+            transactionalOperator);
+        
+        lenient().when(rewardTypeRepository.insertMissing(any(Long[].class), any(String[].class))).thenReturn(Mono.just(1));
+        
         validRecord = new RewardRecord(
             1L,
             "Иванов Иван Иванович",
@@ -46,19 +82,12 @@ class RewardServiceTest {
             "Лучший сотрудник",
             LocalDateTime.parse("2024-01-15T10:30:00")
         );
-        
-        savedReward = new Reward();
-        savedReward.setId(1L);
-        savedReward.setEmployeeId(1L);
-        savedReward.setRewardId(100L);
-        savedReward.setRewardName("Лучший сотрудник");
-        savedReward.setReceivedDate(LocalDateTime.parse("2024-01-15T10:30:00"));
     }
     
     @Test
     void testProcessRewards_EmployeeExists_SavesReward() {
-        when(employeeRepository.existsById(1L)).thenReturn(Mono.just(true));
-        when(rewardRepository.save(any(Reward.class))).thenReturn(Mono.just(savedReward));
+        when(employeeRepository.findExistingIds(any(Long[].class))).thenReturn(Flux.just(1L));
+        when(rewardBatchRepository.insertAll(anyList(), anyBoolean())).thenReturn(Mono.just(1L));
         
         Flux<RewardRecord> records = Flux.just(validRecord);
         
@@ -67,17 +96,31 @@ class RewardServiceTest {
                 assertEquals(1, response.totalRecords());
                 assertEquals(1, response.savedRecords());
                 assertEquals(0, response.skippedRecords());
+                assertEquals(1, response.batches());
                 assertTrue(response.message().contains("сохранено: 1"));
             })
             .verifyComplete();
         
-        verify(employeeRepository, times(1)).existsById(1L);
-        verify(rewardRepository, times(1)).save(any(Reward.class));
+        verify(employeeRepository, times(1)).findExistingIds(new Long[]{1L});
+        verify(rewardBatchRepository, times(1)).insertAll(List.of(validRecord), true);
+        verify(eventPublisher).publishEvent(new RewardsSavedEvent(Set.of(1L)));
+    }
+    
+    @Test
+    void testProcessRewards_OnlyDuplicates_DoesNotPublishSavedEvent() {
+        when(employeeRepository.findExistingIds(any(Long[].class))).thenReturn(Flux.just(1L));
+        when(rewardBatchRepository.insertAll(anyList(), anyBoolean())).thenReturn(Mono.just(0L));
+        
+        StepVerifier.create(rewardService.processRewards(Flux.just(validRecord)))
+            .assertNext(response -> assertEquals(1, response.duplicateRecords()))
+            .verifyComplete();
+        
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
     
     @Test
     void testProcessRewards_EmployeeNotExists_SkipsReward() {
-        when(employeeRepository.existsById(1L)).thenReturn(Mono.just(false));
+        when(employeeRepository.findExistingIds(any(Long[].class))).thenReturn(Flux.empty());
         
         Flux<RewardRecord> records = Flux.just(validRecord);
         
@@ -90,8 +133,8 @@ class RewardServiceTest {
             })
             .verifyComplete();
         
-        verify(employeeRepository, times(1)).existsById(1L);
-        verify(rewardRepository, never()).save(any(Reward.class));
+        verify(employeeRepository, times(1)).findExistingIds(new Long[]{1L});
+        verify(rewardBatchRepository, never()).insertAll(anyList(), anyBoolean());
     }
     
     @Test
@@ -100,13 +143,10 @@ class RewardServiceTest {
         RewardRecord record2 = new RewardRecord(2L, "Петров", 101L, "Награда 2", LocalDateTime.now());
         RewardRecord record3 = new RewardRecord(999L, "Несуществующий", 102L, "Награда 3", LocalDateTime.now());
         
-        when(employeeRepository.existsById(1L)).thenReturn(Mono.just(true));
-        when(employeeRepository.existsById(2L)).thenReturn(Mono.just(true));
-        when(employeeRepository.existsById(999L)).thenReturn(Mono.just(false));
+        when(employeeRepository.findExistingIds(any(Long[].class))).thenReturn(Flux.just(1L, 2L));
         
-        when(rewardRepository.save(any(Reward.class)))
-            .thenReturn(Mono.just(new Reward(1L, 1L, 100L, "Награда 1", LocalDateTime.now())))
-            .thenReturn(Mono.just(new Reward(2L, 2L, 101L, "Награда 2", LocalDateTime.now())));
+        when(rewardBatchRepository.insertAll(anyList(), anyBoolean()))
+            .thenAnswer(invocation -> Mono.just((long) invocation.<List<?>>getArgument(0).size()));
         
         Flux<RewardRecord> records = Flux.just(record1, record2, record3);
         
@@ -118,10 +158,56 @@ class RewardServiceTest {
             })
             .verifyComplete();
         
-        verify(employeeRepository, times(1)).existsById(1L);
-        verify(employeeRepository, times(1)).existsById(2L);
-        verify(employeeRepository, times(1)).existsById(999L);
-        verify(rewardRepository, times(2)).save(any(Reward.class));
+        verify(employeeRepository, times(1)).findExistingIds(new Long[]{1L, 2L, 999L});
+        verify(rewardBatchRepository, times(1)).insertAll(anyList(), anyBoolean());
+    }
+    
+    @Test
+    void testProcessRewards_MoreRecordsThanBatchSize_SavesInSeveralBatches() {
+        RewardProperties properties = new RewardProperties();
+        properties.getBatch().setSize(2);
+        rewardService = new RewardService(
+            new EmployeeIdCache(employeeRepository, properties), new RewardTypeCatalog(rewardTypeRepository),
+            rewardBatchRepository, properties, RewardMetrics.noop(), eventPublisher, uploadCheckpointRepository,
+            transactionalOperator);
+        
+        when(employeeRepository.findExistingIds(any(Long[].class))).thenReturn(Flux.just(1L));
+        when(rewardBatchRepository.insertAll(anyList(), anyBoolean()))
+            .thenAnswer(invocation -> Mono.just((long) invocation.<List<?>>getArgument(0).size()));
+        
+        Flux<RewardRecord> records = Flux.just(validRecord, validRecord, validRecord);
+        
+        StepVerifier.create(rewardService.processRewards(records))
+            .assertNext(response -> {
+                assertEquals(3, response.totalRecords());
+                assertEquals(3, response.savedRecords());
+                assertEquals(2, response.batches());
+            })
+            .verifyComplete();
+        
+        verify(rewardBatchRepository, times(2)).insertAll(anyList(), anyBoolean());
+        verify(employeeRepository, times(2)).findExistingIds(new Long[]{1L});
+    }
+    
+    @Test
+    void testProcessRewards_AlreadySavedRewards_CountedAsDuplicates() {
+        RewardRecord record1 = new RewardRecord(1L, "Иванов", 100L, "Награда 1", LocalDateTime.now());
+        RewardRecord record2 = new RewardRecord(1L, "Иванов", 101L, "Награда 2", LocalDateTime.now());
+        
+        when(employeeRepository.findExistingIds(any(Long[].class))).thenReturn(Flux.just(1L));
+        when(rewardBatchRepository.insertAll(anyList(), anyBoolean())).thenReturn(Mono.just(1L));
+        
+        StepVerifier.create(rewardService.processRewards(Flux.just(record1, record2)))
+            .assertNext(response -> {
+                assertEquals(2, response.totalRecords());
+                assertEquals(1, response.savedRecords());
+                assertEquals(0, response.skippedRecords());
+                assertEquals(1, response.duplicateRecords());
+                assertTrue(response.message().contains("дубликатов: 1"));
+            })
+            .verifyComplete();
+        
+        verify(rewardBatchRepository, times(1)).insertAll(List.of(record1, record2), true);
     }
     
     @Test
@@ -136,8 +222,191 @@ class RewardServiceTest {
             })
             .verifyComplete();
         
-        verify(employeeRepository, never()).existsById(anyLong());
-        verify(rewardRepository, never()).save(any(Reward.class));
+        verify(employeeRepository, never()).findExistingIds(any(Long[].class));
+        verify(rewardBatchRepository, never()).insertAll(anyList(), anyBoolean());
+    }
+    
+    @Test
+    void testProcessRewards_Ordered_SavesBatchesInFileOrder() {
+        RewardProperties properties = new RewardProperties();
+        properties.getBatch().setSize(1);
+        properties.setOrdered(true);
+        rewardService = new RewardService(
+            new EmployeeIdCache(employeeRepository, properties), new RewardTypeCatalog(rewardTypeRepository),
+            rewardBatchRepository, properties, RewardMetrics.noop(), eventPublisher, uploadCheckpointRepository,
+            transactionalOperator);
+        
+        List<LocalDateTime> savedOrder = new CopyOnWriteArrayList<>();
+        when(employeeRepository.findExistingIds(any(Long[].class))).thenReturn(Flux.just(1L));
+        when(rewardBatchRepository.insertAll(anyList(), anyBoolean())).thenAnswer(invocation -> {
+            LocalDateTime receivedDate = invocation.<List<RewardRecord>>getArgument(0).get(0).receivedDate();
+            // Пачки из начала файла вставляются дольше последующих
+            return Mono.delay(Duration.ofMillis(50 - receivedDate.getDayOfMonth() * 10L))
+                .doOnNext(tick -> savedOrder.add(receivedDate))
+                .thenReturn(1L);
+        });
+        
+        StepVerifier.create(rewardService.processRewards(records(4)))
+            .assertNext(response -> assertEquals(4, response.savedRecords()))
+            .verifyComplete();
+        
+        assertEquals(records(4).map(RewardRecord::receivedDate).collectList().block(), savedOrder);
+    }
+    
+    @Test
+    void testProcessRewards_Concurrency_LimitsBatchesInFlight() {
+        RewardProperties properties = new RewardProperties();
+        properties.getBatch().setSize(1);
+        properties.setConcurrency(2);
+        rewardService = new RewardService(
+            new EmployeeIdCache(employeeRepository, properties), new RewardTypeCatalog(rewardTypeRepository),
+            rewardBatchRepository, properties, RewardMetrics.noop(), eventPublisher, uploadCheckpointRepository,
+            transactionalOperator);
+        
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(employeeRepository.findExistingIds(any(Long[].class))).thenReturn(Flux.just(1L));
+        when(rewardBatchRepository.insertAll(anyList(), anyBoolean())).thenAnswer(invocation -> Mono.defer(() -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                return Mono.delay(Duration.ofMillis(20)).thenReturn(1L);
+            })
+            .doFinally(signal -> inFlight.decrementAndGet()));
+        
+        StepVerifier.create(rewardService.processRewards(records(8)))
+            .assertNext(response -> assertEquals(8, response.savedRecords()))
+            .verifyComplete();
+        
+        assertEquals(2, maxInFlight.get());
+    }
+    
+    @Test
+    void testProcessRewards_EmployeeDeletedAfterCheck_RechecksAndSavesRemaining() {
+        RewardProperties properties = new RewardProperties();
+        properties.getEmployeeCache().setEnabled(false);
+        rewardService = new RewardService(
+            new EmployeeIdCache(employeeRepository, properties), new RewardTypeCatalog(rewardTypeRepository),
+            rewardBatchRepository, properties, RewardMetrics.noop(), eventPublisher, uploadCheckpointRepository,
+            transactionalOperator);
+        
+        RewardRecord deletedEmployeeRecord = new RewardRecord(2L, "Петров Петр Петрович", 100L, "Лучший сотрудник",
+            LocalDateTime.parse("2024-01-16T10:30:00"));
+        when(employeeRepository.findExistingIds(any(Long[].class)))
+            .thenReturn(Flux.just(1L, 2L))
+            .thenReturn(Flux.just(1L));
+        when(rewardBatchRepository.insertAll(anyList(), anyBoolean()))
+            .thenReturn(Mono.error(new DataIntegrityViolationException("insert",
+                new R2dbcDataIntegrityViolationException("violates foreign key constraint", "23503"))))
+            .thenReturn(Mono.just(1L));
+        
+        StepVerifier.create(rewardService.processRewards(Flux.just(validRecord, deletedEmployeeRecord)))
+            .assertNext(response -> {
+                assertEquals(2, response.totalRecords());
+                assertEquals(1, response.savedRecords());
+                assertEquals(1, response.skippedRecords());
+            })
+            .verifyComplete();
+        
+        verify(rewardBatchRepository).insertAll(List.of(validRecord), true);
+    }
+    
+    @Test
+    void testProcessRewards_ForeignKeyViolationWithExistingEmployees_Fails() {
+        when(employeeRepository.findExistingIds(any(Long[].class))).thenReturn(Flux.just(1L));
+        when(rewardBatchRepository.insertAll(anyList(), anyBoolean()))
+            .thenReturn(Mono.error(new DataIntegrityViolationException("insert",
+                new R2dbcDataIntegrityViolationException("violates foreign key constraint", "23503"))));
+        
+        StepVerifier.create(rewardService.processRewards(Flux.just(validRecord)))
+            .expectError(DataIntegrityViolationException.class)
+            .verify();
+        
+        verify(rewardBatchRepository, times(1)).insertAll(anyList(), anyBoolean());
+    }
+    
+    @Test
+    void testProcessRewards_Checkpointed_CommitsChunksWithCheckpoints() {
+        RewardProperties properties = new RewardProperties();
+        properties.getBatch().setSize(2);
+        rewardService = checkpointedService(properties);
+        when(uploadCheckpointRepository.findCommittedRecords(eq("sha"), any(LocalDateTime.class))).thenReturn(Mono.empty());
+        when(employeeRepository.findExistingIds(any(Long[].class))).thenReturn(Flux.just(1L));
+        when(rewardBatchRepository.insertAll(anyList(), anyBoolean()))
+            .thenAnswer(invocation -> Mono.just((long) invocation.<List<?>>getArgument(0).size()));
+        
+        StepVerifier.create(rewardService.processRewards(records(5), new UploadProgress(), "sha"))
+            .assertNext(response -> {
+                assertEquals(5, response.totalRecords());
+                assertEquals(5, response.savedRecords());
+                assertEquals(3, response.batches());
+            })
+            .verifyComplete();
+        
+        InOrder inOrder = inOrder(uploadCheckpointRepository);
+        inOrder.verify(uploadCheckpointRepository).upsert(eq("sha"), eq(2L), any(LocalDateTime.class));
+        inOrder.verify(uploadCheckpointRepository).upsert(eq("sha"), eq(4L), any(LocalDateTime.class));
+        inOrder.verify(uploadCheckpointRepository).upsert(eq("sha"), eq(5L), any(LocalDateTime.class));
+        inOrder.verify(uploadCheckpointRepository).deleteById("sha");
+        verify(transactionalOperator, times(3)).transactional(any(Mono.class));
+    }
+    
+    @Test
+    void testProcessRewards_CheckpointExists_ResumesAfterCommittedRecords() {
+        RewardProperties properties = new RewardProperties();
+        properties.getBatch().setSize(2);
+        rewardService = checkpointedService(properties);
+        when(uploadCheckpointRepository.findCommittedRecords(eq("sha"), any(LocalDateTime.class))).thenReturn(Mono.just(4L));
+        when(employeeRepository.findExistingIds(any(Long[].class))).thenReturn(Flux.just(1L));
+        when(rewardBatchRepository.insertAll(anyList(), anyBoolean())).thenReturn(Mono.just(1L));
+        
+        StepVerifier.create(rewardService.processRewards(records(5), new UploadProgress(), "sha"))
+            .assertNext(response -> {
+                assertEquals(5, response.totalRecords());
+                assertEquals(1, response.savedRecords());
+                assertTrue(response.message().contains("продолжена после 4 записей"));
+            })
+            .verifyComplete();
+        
+        verify(rewardBatchRepository, times(1)).insertAll(argThat(batch -> batch.size() == 1
+            && batch.get(0).receivedDate().equals(LocalDateTime.parse("2024-01-05T10:00:00"))), anyBoolean());
+        verify(uploadCheckpointRepository).upsert(eq("sha"), eq(5L), any(LocalDateTime.class));
+    }
+    
+    @Test
+    void testProcessRewards_ChunkFails_KeepsCheckpointOfCommittedChunks() {
+        RewardProperties properties = new RewardProperties();
+        properties.getBatch().setSize(2);
+        rewardService = checkpointedService(properties);
+        when(uploadCheckpointRepository.findCommittedRecords(eq("sha"), any(LocalDateTime.class))).thenReturn(Mono.empty());
+        when(employeeRepository.findExistingIds(any(Long[].class))).thenReturn(Flux.just(1L));
+        when(rewardBatchRepository.insertAll(anyList(), anyBoolean()))
+            .thenReturn(Mono.just(2L))
+            .thenReturn(Mono.error(new RuntimeException("БД недоступна")));
+        
+        StepVerifier.create(rewardService.processRewards(records(5), new UploadProgress(), "sha"))
+            .expectErrorMessage("БД недоступна")
+            .verify();
+        
+        verify(uploadCheckpointRepository, times(1)).upsert(eq("sha"), eq(2L), any(LocalDateTime.class));
+        verify(uploadCheckpointRepository, never()).upsert(eq("sha"), eq(4L), any(LocalDateTime.class));
+        verify(uploadCheckpointRepository, never()).deleteById(anyString());
+    }
+    
+    private RewardService checkpointedService(RewardProperties properties) {
+        properties.getCheckpoint().setEnabled(true);
+        lenient().when(transactionalOperator.transactional(any(Mono.class)))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(uploadCheckpointRepository.upsert(anyString(), anyLong(), any(LocalDateTime.class)))
+            .thenReturn(Mono.just(1));
+        lenient().when(uploadCheckpointRepository.deleteById(anyString())).thenReturn(Mono.empty());
+        return new RewardService(
+            new EmployeeIdCache(employeeRepository, properties), new RewardTypeCatalog(rewardTypeRepository),
+            rewardBatchRepository, properties, RewardMetrics.noop(), eventPublisher, uploadCheckpointRepository,
+            transactionalOperator);
+    }
+    
+    private static Flux<RewardRecord> records(int count) {
+        return Flux.range(1, count)
+            .map(i -> new RewardRecord(1L, "Иванов Иван Иванович", 100L, "Лучший сотрудник",
+                LocalDateTime.parse(String.format("2024-01-%02dT10:00:00", i))));
     }
 }
-
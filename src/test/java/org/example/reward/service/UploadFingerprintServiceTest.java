@@ -0,0 +1,149 @@
+package org.example.reward.service;
+
+import org.example.reward.config.RewardProperties;
+import org.example.reward.dto.RewardUploadResponse;
+import org.example.reward.entity.UploadFingerprint;
+import org.example.reward.repository.UploadFingerprintRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UploadFingerprintServiceTest {
+    
+    /**
+     * SHA-256 строки "abc".
+     */
+    private static final String ABC_SHA256 = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+    
+    @Mock
+    private UploadFingerprintRepository uploadFingerprintRepository;
+    
+    @TempDir
+    Path spoolDir;
+    
+    private RewardProperties properties;
+    
+    private UploadFingerprintService uploadFingerprintService;
+    
+    private final AtomicInteger processedFiles = new AtomicInteger();
+    
+    private final AtomicReference<String> checkpointKey = new AtomicReference<>();
+    
+    /**
+     * Обработка, возвращающая содержимое файла в сообщении ответа.
+     */
+    private final BiFunction<Flux<DataBuffer>, String, Mono<RewardUploadResponse>> processing = (content, fingerprint) ->
+        DataBufferUtils.join(content)
+            .map(buffer -> {
+                String text = buffer.toString(StandardCharsets.UTF_8);
+                DataBufferUtils.release(buffer);
+                processedFiles.incrementAndGet();
+                checkpointKey.set(fingerprint);
+                return new RewardUploadResponse(1, 1, 0, 0, 0, 1, text, List.of());
+            });
+    
+    @BeforeEach
+    void setUp() {
+        properties = new RewardProperties();
+        properties.getJobs().setSpoolDir(spoolDir);
+        properties.getFingerprint().setEnabled(true);
+        uploadFingerprintService = new UploadFingerprintService(uploadFingerprintRepository, properties);
+    }
+    
+    @Test
+    void testProcessOnce_NewFile_ProcessesAndRemembersFingerprint() throws Exception {
+        when(uploadFingerprintRepository.findById(ABC_SHA256)).thenReturn(Mono.empty());
+        when(uploadFingerprintRepository.upsert(eq(ABC_SHA256), eq(3L), anyInt(), anyInt(), anyInt(), anyInt(),
+            anyInt(), anyString(), any(LocalDateTime.class))).thenReturn(Mono.just(1));
+        
+        StepVerifier.create(uploadFingerprintService.processOnce(content("a", "bc"), processing))
+            .assertNext(response -> assertEquals("abc", response.message()))
+            .verifyComplete();
+        
+        assertEquals(1, processedFiles.get());
+        assertEquals(ABC_SHA256, checkpointKey.get());
+        verify(uploadFingerprintRepository, times(1)).upsert(eq(ABC_SHA256), eq(3L), eq(1), eq(1), eq(0), eq(0),
+            eq(1), eq("abc"), any(LocalDateTime.class));
+        try (var files = Files.list(spoolDir)) {
+            assertEquals(0, files.count(), "Временный файл должен быть удален");
+        }
+    }
+    
+    @Test
+    void testProcessOnce_SameFileProcessedBefore_ReturnsCachedResponse() {
+        UploadFingerprint processed = new UploadFingerprint(ABC_SHA256, 3L, 10, 8, 1, 1, 1,
+            "Обработано записей: 10", LocalDateTime.now().minusHours(1));
+        when(uploadFingerprintRepository.findById(ABC_SHA256)).thenReturn(Mono.just(processed));
+        
+        StepVerifier.create(uploadFingerprintService.processOnce(content("abc"), processing))
+            .assertNext(response -> {
+                assertEquals(10, response.totalRecords());
+                assertEquals(8, response.savedRecords());
+                assertTrue(response.message().startsWith("Файл уже был обработан ранее"));
+            })
+            .verifyComplete();
+        
+        assertEquals(0, processedFiles.get());
+        verify(uploadFingerprintRepository, never()).upsert(anyString(), anyLong(), anyInt(), anyInt(), anyInt(),
+            anyInt(), anyInt(), anyString(), any(LocalDateTime.class));
+    }
+    
+    @Test
+    void testProcessOnce_FingerprintExpired_ProcessesAgain() {
+        UploadFingerprint processed = new UploadFingerprint(ABC_SHA256, 3L, 10, 8, 1, 1, 1,
+            "Обработано записей: 10", LocalDateTime.now().minus(properties.getFingerprint().getTtl()).minusMinutes(1));
+        when(uploadFingerprintRepository.findById(ABC_SHA256)).thenReturn(Mono.just(processed));
+        when(uploadFingerprintRepository.upsert(anyString(), anyLong(), anyInt(), anyInt(), anyInt(), anyInt(),
+            anyInt(), anyString(), any(LocalDateTime.class))).thenReturn(Mono.just(1));
+        
+        StepVerifier.create(uploadFingerprintService.processOnce(content("abc"), processing))
+            .assertNext(response -> assertEquals("abc", response.message()))
+            .verifyComplete();
+        
+        assertEquals(1, processedFiles.get());
+    }
+    
+    @Test
+    void testProcessOnce_Disabled_ProcessesWithoutFingerprint() {
+        properties.getFingerprint().setEnabled(false);
+        
+        StepVerifier.create(uploadFingerprintService.processOnce(content("abc"), processing))
+            .assertNext(response -> assertEquals("abc", response.message()))
+            .verifyComplete();
+        
+        assertNull(checkpointKey.get());
+        verifyNoInteractions(uploadFingerprintRepository);
+    }
+    
+    private static Flux<DataBuffer> content(String... chunks) {
+        return Flux.fromArray(chunks)
+            .map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.reward.service;
+
+import org.example.reward.config.RewardProperties;
+import org.example.reward.dto.RewardRecord;
+import org.example.reward.dto.RewardUploadResponse;
+import org.example.reward.entity.UploadJob;
+import org.example.reward.entity.UploadJobStatus;
+import org.example.reward.exception.UploadJobNotFoundException;
+import org.example.reward.metrics.RewardMetrics;
+import org.example.reward.repository.UploadJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.codec.multipart.FilePart;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UploadJobServiceTest {
+    
+    @Mock
+    private RewardService rewardService;
+    
+    @Mock
+    private UploadJobRepository uploadJobRepository;
+    
+    @Mock
+    private FilePart filePart;
+    
+    @TempDir
+    Path spoolDir;
+    
+    private UploadJobService uploadJobService;
+    
+    @BeforeEach
+    void setUp() {
+        RewardProperties properties = new RewardProperties();
+        properties.getJobs().setSpoolDir(spoolDir);
+        uploadJobService = new UploadJobService(new CsvParserService(RewardMetrics.noop(), new RewardProperties()), rewardService, uploadJobRepository, properties);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        uploadJobService.shutdown();
+    }
+    
+    @Test
+    void testSubmit_ReturnsJobImmediatelyAndProcessesInBackground() {
+        String csvContent = """
+            employeeId,employeeFullName,rewardId,rewardName,receivedDate
+            1,Иванов Иван Иванович,100,Лучший сотрудник,2024-01-15T10:30:00
+            2,Петров Петр Петрович,101,За отличную работу,2024-02-20T14:45:00
+            """;
+        
+        when(filePart.filename()).thenReturn("rewards.csv");
+        when(filePart.transferTo(any(Path.class))).thenAnswer(invocation -> Mono.fromRunnable(() -> {
+            try {
+                Files.writeString(invocation.getArgument(0), csvContent, StandardCharsets.UTF_8);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        when(uploadJobRepository.save(any(UploadJob.class))).thenAnswer(invocation -> {
+            UploadJob job = invocation.getArgument(0);
+            if (job.getId() == null) {
+                job.setId(1L);
+            }
+            return Mono.just(job);
+        });
+        when(rewardService.processRewards(any(), any(UploadProgress.class))).thenAnswer(invocation ->
+            invocation.<Flux<RewardRecord>>getArgument(0)
+                .count()
+                .map(count -> new RewardUploadResponse(count.intValue(), count.intValue(), 0, "Готово")));
+        
+        StepVerifier.create(uploadJobService.submit(filePart))
+            .assertNext(job -> {
+                assertEquals(1L, job.jobId());
+                assertEquals("rewards.csv", job.fileName());
+                assertEquals(UploadJobStatus.QUEUED, job.status());
+            })
+            .verifyComplete();
+        
+        verify(uploadJobRepository, timeout(5000)).save(argThat(job ->
+            job.getStatus() == UploadJobStatus.COMPLETED && "Готово".equals(job.getMessage())));
+    }
+    
+    @Test
+    void testGetJob_UnknownId_ReturnsNotFoundError() {
+        when(uploadJobRepository.findById(42L)).thenReturn(Mono.empty());
+        
+        StepVerifier.create(uploadJobService.getJob(42L))
+            .expectError(UploadJobNotFoundException.class)
+            .verify();
+    }
+}
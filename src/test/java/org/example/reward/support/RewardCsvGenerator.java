@@ -0,0 +1,188 @@
+package org.example.reward.support;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Генератор синтетических CSV файлов с наградами произвольного размера.
+ *
+ * Файл формируется порциями, поэтому занимаемая память не зависит от количества строк.
+ * При одинаковых настройках (включая seed) генерируется побайтно одинаковый файл.
+ *
+ * Запуск из командной строки:
+ * <pre>
+ * java ... org.example.reward.support.RewardCsvGenerator rewards_1m.csv 1000000 [employees] [skew] [unknownRatio] [invalidRatio] [seed]
+ * </pre>
+ */
+public final class RewardCsvGenerator {
+    
+    public static final String HEADER = "employeeId,employeeFullName,rewardId,rewardName,receivedDate\n";
+    
+    private static final String[] NAMES = {
+        "Иванов Иван Иванович", "Петров Петр Петрович", "Сидоров Сидор Сидорович",
+        "Козлова Анна Сергеевна", "Смирнов Алексей Владимирович", "Ivanova Maria"
+    };
+    
+    private static final String[] REWARDS = {
+        "Лучший сотрудник", "За отличную работу", "\"Лучший, по итогам года\"",
+        "Наставник", "Employee of the month"
+    };
+    
+    private static final LocalDateTime FIRST_DATE = LocalDateTime.parse("2024-01-01T00:00:00");
+    
+    private static final int SECONDS_IN_YEAR = 365 * 24 * 60 * 60;
+    
+    /**
+     * Настройки генерации.
+     *
+     * @param rows количество строк без заголовка
+     * @param employees ID существующих сотрудников: от 1 до employees
+     * @param skew перекос распределения ID сотрудников: 1 — равномерно, больше 1 — большая часть
+     *             наград приходится на сотрудников с малыми ID
+     * @param unknownEmployeeRatio доля строк с несуществующими сотрудниками (ID больше employees)
+     * @param invalidRowRatio доля строк с ошибкой формата (нечисловой ID, неверная дата, не хватает колонки)
+     * @param seed начальное значение генератора случайных чисел
+     */
+    public record Settings(
+        long rows,
+        int employees,
+        double skew,
+        double unknownEmployeeRatio,
+        double invalidRowRatio,
+        long seed
+    ) {
+        
+        public Settings(long rows, int employees) {
+            this(rows, employees, 1.0, 0.0, 0.0, 42);
+        }
+        
+        public Settings withSeed(long seed) {
+            return new Settings(rows, employees, skew, unknownEmployeeRatio, invalidRowRatio, seed);
+        }
+    }
+    
+    private final Settings settings;
+    private final SplittableRandom random;
+    private final StringBuilder chunk = new StringBuilder();
+    
+    private long rowsWritten;
+    private boolean headerWritten;
+    
+    private RewardCsvGenerator(Settings settings) {
+        this.settings = settings;
+        this.random = new SplittableRandom(settings.seed());
+    }
+    
+    /**
+     * Поток порций CSV файла размером около chunkSize байт.
+     */
+    public static Flux<DataBuffer> generate(Settings settings, DataBufferFactory bufferFactory, int chunkSize) {
+        return Flux.generate(() -> new RewardCsvGenerator(settings), (generator, sink) -> {
+            byte[] bytes = generator.nextChunk(chunkSize);
+            if (bytes == null) {
+                sink.complete();
+            } else {
+                sink.next(bufferFactory.wrap(bytes));
+            }
+            return generator;
+        });
+    }
+    
+    /**
+     * Записывает CSV файл на диск.
+     */
+    public static void write(Settings settings, Path file) throws IOException {
+        RewardCsvGenerator generator = new RewardCsvGenerator(settings);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            byte[] bytes;
+            while ((bytes = generator.nextChunk(64 * 1024)) != null) {
+                out.write(bytes);
+            }
+        }
+    }
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Использование: RewardCsvGenerator <файл> <строк> [сотрудников] [перекос] "
+                + "[доля несуществующих сотрудников] [доля ошибочных строк] [seed]");
+            System.exit(1);
+        }
+        
+        Settings settings = new Settings(
+            Long.parseLong(args[1]),
+            args.length > 2 ? Integer.parseInt(args[2]) : 10_000,
+            args.length > 3 ? Double.parseDouble(args[3]) : 1.0,
+            args.length > 4 ? Double.parseDouble(args[4]) : 0.0,
+            args.length > 5 ? Double.parseDouble(args[5]) : 0.0,
+            args.length > 6 ? Long.parseLong(args[6]) : 42
+        );
+        Path file = Path.of(args[0]);
+        
+        long start = System.nanoTime();
+        write(settings, file);
+        System.out.printf("Сгенерировано строк: %d, размер: %d байт, за %d мс%n",
+            settings.rows(), Files.size(file), (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    /**
+     * Следующая порция строк в UTF-8 или null, если все строки сгенерированы.
+     */
+    private byte[] nextChunk(int chunkSize) {
+        if (headerWritten && rowsWritten >= settings.rows()) {
+            return null;
+        }
+        
+        chunk.setLength(0);
+        if (!headerWritten) {
+            chunk.append(HEADER);
+            headerWritten = true;
+        }
+        // Кириллица занимает 2 байта в UTF-8, поэтому длина в символах берется с запасом
+        while (chunk.length() < chunkSize / 2 && rowsWritten < settings.rows()) {
+            appendRow();
+            rowsWritten++;
+        }
+        return chunk.toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    private void appendRow() {
+        long employeeId = nextEmployeeId();
+        long rewardId = 100 + random.nextInt(REWARDS.length);
+        String name = NAMES[random.nextInt(NAMES.length)];
+        String reward = REWARDS[(int) (rewardId - 100)];
+        LocalDateTime date = FIRST_DATE.plusSeconds(random.nextInt(SECONDS_IN_YEAR));
+        
+        if (random.nextDouble() < settings.invalidRowRatio()) {
+            switch (random.nextInt(3)) {
+                case 0 -> chunk.append("x").append(employeeId).append(',').append(name).append(',')
+                    .append(rewardId).append(',').append(reward).append(',').append(date);
+                case 1 -> chunk.append(employeeId).append(',').append(name).append(',')
+                    .append(rewardId).append(',').append(reward).append(",15.01.2024");
+                default -> chunk.append(employeeId).append(',').append(name).append(',').append(rewardId);
+            }
+        } else {
+            chunk.append(employeeId).append(',').append(name).append(',')
+                .append(rewardId).append(',').append(reward).append(',').append(date);
+        }
+        chunk.append('\n');
+    }
+    
+    private long nextEmployeeId() {
+        int employees = settings.employees();
+        if (random.nextDouble() < settings.unknownEmployeeRatio()) {
+            return employees + 1L + random.nextInt(employees);
+        }
+        // Степенное преобразование равномерной величины: при skew > 1 значения смещаются к малым ID
+        double u = Math.pow(random.nextDouble(), settings.skew());
+        return Math.min(employees, (long) (u * employees) + 1);
+    }
+}